@@ -0,0 +1,73 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import kdtree.FlatKdTree;
+import org.openjdk.jmh.annotations.*;
+
+// Batch k-nearest throughput in queries per second. Compare the threads settings
+// for the scaling from one core to all of them; loop is the one-at-a-time baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchQueryBenchmark {
+    private static final int QUERY_COUNT = 1 << 16;
+    private static final int K = 8;
+
+    @Param({"1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    FlatKdTree tree;
+    PointSet queries;
+    int[] neighbours;
+    double[] distances;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = new FlatKdTree(distribution.generate(count));
+        Random random = new Random(7);
+        queries = new PointSet(QUERY_COUNT);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries.add(random.nextDouble() * PointDistribution.EXTENT, random.nextDouble() * PointDistribution.EXTENT);
+        }
+        neighbours = new int[QUERY_COUNT * K];
+        distances = new double[QUERY_COUNT * K];
+        pool = threads == 1 ? null : new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int[] batch() {
+        tree.kNearest(queries, K, neighbours, distances, pool);
+        return neighbours;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int loop() {
+        int sum = 0;
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            sum += tree.kNearest(queries.x(q), queries.y(q), K)[0];
+        }
+        return sum;
+    }
+}
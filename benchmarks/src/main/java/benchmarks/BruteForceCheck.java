@@ -0,0 +1,398 @@
+package benchmarks;
+
+import convex_hull.ChansAlgorithm;
+import convex_hull.DynamicConvexHull;
+import convex_hull.GiftWrapping;
+import convex_hull.GrahamScan;
+import convex_hull.ParallelConvexHull;
+import geometry.BoundingBox;
+import geometry.PointSet;
+import geometry.Predicates;
+import graph.ProximityGraphs;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import kdtree.FlatKdTree;
+import kdtree.KdTree;
+import triangulation.DelaunayTriangulation;
+import triangulation.PointLocator;
+import triangulation.TriangleMesh;
+
+// Compares the hulls, k-d trees, point location and proximity graphs with quadratic
+// or cubic brute force on many small random inputs, including integer coordinates
+// with duplicates, collinear and cocircular points:
+//
+//   java -cp target/benchmarks.jar benchmarks.BruteForceCheck
+//
+// Exits with status 1 on the first failure.
+public class BruteForceCheck {
+
+    public static void main(String[] args) {
+        Random random = new Random(23);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int trial = 0; trial < 3000; trial++) {
+                checkHulls(randomPoints(random, trial, 1 + random.nextInt(trial < 1000 ? 10 : 200)), pool, trial);
+            }
+            System.out.println("hulls: ok");
+            for (int trial = 0; trial < 500; trial++) {
+                checkKdTrees(randomPoints(random, trial, random.nextInt(300)), random, pool, trial);
+            }
+            System.out.println("k-d trees: ok");
+            for (int trial = 0; trial < 300; trial++) {
+                checkLocator(randomPoints(random, trial, 3 + random.nextInt(200)), random, trial);
+            }
+            System.out.println("point location: ok");
+            for (int trial = 0; trial < 400; trial++) {
+                checkGraphs(randomPoints(random, trial, 1 + random.nextInt(trial < 200 ? 20 : 150)), trial);
+            }
+            System.out.println("proximity graphs: ok");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Random coordinates on even trials, an 8 x 8 integer grid (so duplicates,
+    // collinear and cocircular points) on odd ones
+    private static PointSet randomPoints(Random random, int trial, int n) {
+        PointSet points = new PointSet(n);
+        for (int i = 0; i < n; i++) {
+            if (trial % 2 == 0) {
+                points.add(random.nextDouble() * 100, random.nextDouble() * 100);
+            } else {
+                points.add(random.nextInt(8), random.nextInt(8));
+            }
+        }
+        return points;
+    }
+
+    // Every algorithm returns the same hull, and that hull is a strictly convex
+    // counter-clockwise polygon with every point on or inside it, starting at the
+    // smallest (x, y) and using the lowest index among duplicates
+    private static void checkHulls(PointSet points, ForkJoinPool pool, int trial) {
+        String name = "trial " + trial + " (" + points.size() + " points)";
+        int[] hull = GrahamScan.findConvexHull(points);
+        expectEqual("GiftWrapping " + name, hull, GiftWrapping.findConvexHull(points));
+        expectEqual("ChansAlgorithm " + name, hull, ChansAlgorithm.findConvexHull(points));
+        expectEqual("ParallelConvexHull " + name, hull, ParallelConvexHull.findConvexHull(points, pool, 3));
+
+        DynamicConvexHull dynamic = new DynamicConvexHull();
+        for (int i = 0; i < points.size(); i++) {
+            dynamic.insert(points.x(i), points.y(i));
+        }
+        expectEqual("DynamicConvexHull " + name, hull, dynamic.hull());
+
+        int first = 0;
+        for (int i = 1; i < points.size(); i++) {
+            if (compareXY(points, i, first) < 0) first = i;
+        }
+        if (hull.length == 0 || hull[0] != first) {
+            fail("GrahamScan " + name + ": hull does not start at point " + first);
+        }
+        int h = hull.length;
+        for (int i = 0; i < h; i++) {
+            int a = hull[i], b = hull[(i + 1) % h], c = hull[(i + 2) % h];
+            if (h >= 3 && orientation(points, a, b, c) <= 0) {
+                fail("GrahamScan " + name + ": no left turn at point " + b);
+            }
+            for (int p = 0; p < points.size(); p++) {
+                if (h >= 2 && orientation(points, a, b, p) < 0) {
+                    fail("GrahamScan " + name + ": point " + p + " lies outside the hull");
+                }
+                if (p < a && points.x(p) == points.x(a) && points.y(p) == points.y(a)) {
+                    fail("GrahamScan " + name + ": hull uses point " + a + " instead of its duplicate " + p);
+                }
+            }
+        }
+    }
+
+    // KdTree and FlatKdTree queries against a scan over all points. Ties make the
+    // neighbour indices ambiguous, so neighbours are compared by distance.
+    private static void checkKdTrees(PointSet points, Random random, ForkJoinPool pool, int trial) {
+        String name = "trial " + trial + " (" + points.size() + " points)";
+        KdTree tree = new KdTree(points);
+        FlatKdTree flat = new FlatKdTree(points, 1 + random.nextInt(20));
+        PointSet queries = new PointSet(40);
+        boolean grid = trial % 2 == 1;  // whole numbers put points on the query circles and boxes
+        for (int q = 0; q < 40; q++) {
+            if (grid) {
+                queries.add(random.nextInt(10) - 1, random.nextInt(10) - 1);
+            } else {
+                queries.add(random.nextDouble() * 110 - 5, random.nextDouble() * 110 - 5);
+            }
+        }
+        int k = 1 + random.nextInt(12);
+        int[] neighbours = new int[queries.size() * k];
+        double[] distances = new double[neighbours.length];
+        flat.kNearest(queries, k, neighbours, distances, trial % 2 == 0 ? null : pool);
+
+        for (int q = 0; q < queries.size(); q++) {
+            double x = queries.x(q), y = queries.y(q);
+            double[] sorted = new double[points.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = squaredDistance(points, i, x, y);
+            }
+            Arrays.sort(sorted);
+            double[] expected = Arrays.copyOf(sorted, Math.min(k, sorted.length));
+
+            expectDistances("KdTree.kNearest " + name, points, x, y, expected, tree.kNearest(x, y, k));
+            expectDistances("FlatKdTree.kNearest " + name, points, x, y, expected, flat.kNearest(x, y, k));
+            int[] row = new int[k];
+            for (int j = 0; j < k; j++) {
+                row[j] = neighbours[q * k + j];
+                double d = j < expected.length ? Math.sqrt(expected[j]) : Double.POSITIVE_INFINITY;
+                if (row[j] >= 0 ? j >= expected.length : j < expected.length) {
+                    fail("FlatKdTree batch " + name + ": row " + q + " has the wrong length");
+                }
+                if (distances[q * k + j] != d) {
+                    fail("FlatKdTree batch " + name + ": distance " + distances[q * k + j] + ", expected " + d);
+                }
+            }
+            expectDistances("FlatKdTree batch " + name, points, x, y, expected, Arrays.copyOf(row, expected.length));
+            double[] closest = Arrays.copyOf(sorted, Math.min(1, sorted.length));
+            expectDistances("KdTree.nearest " + name, points, x, y, closest, nonNegative(tree.nearest(x, y)));
+            expectDistances("FlatKdTree.nearest " + name, points, x, y, closest, nonNegative(flat.nearest(x, y)));
+
+            double r = grid ? random.nextInt(5) : random.nextDouble() * 30;
+            double width = grid ? random.nextInt(5) : random.nextDouble() * 40;
+            double height = grid ? random.nextInt(5) : random.nextDouble() * 40;
+            BoundingBox box = new BoundingBox(x, y, x + width, y + height);
+            int[] inRadius = new int[points.size()];
+            int[] inBox = new int[points.size()];
+            int radiusCount = 0, boxCount = 0;
+            for (int i = 0; i < points.size(); i++) {
+                if (squaredDistance(points, i, x, y) <= r * r) inRadius[radiusCount++] = i;
+                if (box.contains(points.x(i), points.y(i))) inBox[boxCount++] = i;
+            }
+            inRadius = Arrays.copyOf(inRadius, radiusCount);
+            inBox = Arrays.copyOf(inBox, boxCount);
+            expectEqual("KdTree.radiusSearch " + name, inRadius, sorted(tree.radiusSearch(x, y, r)));
+            expectEqual("FlatKdTree.radiusSearch " + name, inRadius, sorted(flat.radiusSearch(x, y, r)));
+            expectEqual("KdTree.rangeSearch " + name, inBox, sorted(tree.rangeSearch(box)));
+            expectEqual("FlatKdTree.rangeSearch " + name, inBox, sorted(flat.rangeSearch(box)));
+        }
+    }
+
+    // Every query inside the triangulation is located in a triangle that contains it
+    // (on its boundary counts), every query outside gets -1; queries include the
+    // vertices themselves
+    private static void checkLocator(PointSet points, Random random, int trial) {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        TriangleMesh mesh = delaunay.getMesh();
+        PointSet queries = new PointSet(100 + points.size());
+        for (int q = 0; q < 100; q++) {
+            if (trial % 2 == 0) {
+                queries.add(random.nextDouble() * 120 - 10, random.nextDouble() * 120 - 10);
+            } else {
+                queries.add(random.nextInt(21) / 2.0 - 1.5, random.nextInt(21) / 2.0 - 1.5);
+            }
+        }
+        for (int i = 0; i < points.size(); i++) {
+            queries.add(points.x(i), points.y(i));
+        }
+        for (boolean hierarchy : new boolean[] {false, true}) {
+            String name = "PointLocator" + (hierarchy ? " with hierarchy" : "") + " trial " + trial;
+            PointLocator locator = new PointLocator(mesh, hierarchy);
+            int[] batch = locator.locateAll(queries);
+            for (int q = 0; q < queries.size(); q++) {
+                double x = queries.x(q), y = queries.y(q);
+                boolean covered = false;
+                for (int t = 0; t < mesh.triangleCount() && !covered; t++) {
+                    covered = contains(mesh, t, x, y);
+                }
+                for (int t : new int[] {locator.locate(x, y), batch[q]}) {
+                    if (covered ? t < 0 || !contains(mesh, t, x, y) : t != -1) {
+                        fail(name + ": query (" + x + ", " + y + ") located in " + t);
+                    }
+                }
+            }
+        }
+    }
+
+    // Graphs against their definitions over all pairs and triples. Duplicates of a
+    // point are joined to it by zero-length edges, so graph edges are compared between
+    // the lowest indices of their locations.
+    private static void checkGraphs(PointSet points, int trial) {
+        String name = "trial " + trial + " (" + points.size() + " points)";
+        int n = points.size();
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+
+        int[] canonical = new int[n];
+        for (int i = 0; i < n; i++) {
+            canonical[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (squaredDistance(points, i, points.x(j), points.y(j)) == 0) {
+                    canonical[i] = j;
+                    break;
+                }
+            }
+        }
+        int[] gabriel = new int[n * n];
+        int[] relative = new int[n * n];
+        int gabrielCount = 0, relativeCount = 0;
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                double length = squaredDistance(points, a, points.x(b), points.y(b));
+                if (canonical[a] != a || canonical[b] != b) continue;
+                boolean inGabriel = true, inRelative = true;
+                for (int c = 0; c < n; c++) {
+                    double da = squaredDistance(points, a, points.x(c), points.y(c));
+                    double db = squaredDistance(points, b, points.x(c), points.y(c));
+                    if (da == 0 || db == 0) continue;
+                    if (da + db <= length) inGabriel = false;
+                    if (Math.max(da, db) < length) inRelative = false;
+                }
+                if (inGabriel) {
+                    gabriel[gabrielCount++] = a;
+                    gabriel[gabrielCount++] = b;
+                }
+                if (inRelative) {
+                    relative[relativeCount++] = a;
+                    relative[relativeCount++] = b;
+                }
+            }
+        }
+        expectEqual("ProximityGraphs.gabrielGraph " + name, edgeKeys(Arrays.copyOf(gabriel, gabrielCount), canonical),
+                edgeKeys(ProximityGraphs.gabrielGraph(delaunay), canonical));
+        expectEqual("ProximityGraphs.relativeNeighbourhoodGraph " + name,
+                edgeKeys(Arrays.copyOf(relative, relativeCount), canonical),
+                edgeKeys(ProximityGraphs.relativeNeighbourhoodGraph(delaunay), canonical));
+
+        // Spanning tree: n - 1 edges connecting everything, as light as Prim's
+        int[] tree = ProximityGraphs.minimumSpanningTree(delaunay);
+        if (tree.length != 2 * Math.max(n - 1, 0)) {
+            fail("ProximityGraphs.minimumSpanningTree " + name + ": " + tree.length / 2 + " edges");
+        }
+        int[] component = new int[n];
+        for (int i = 0; i < n; i++) {
+            component[i] = i;
+        }
+        double weight = 0;
+        for (int i = 0; i < tree.length; i += 2) {
+            weight += Math.sqrt(squaredDistance(points, tree[i], points.x(tree[i + 1]), points.y(tree[i + 1])));
+            int from = component[tree[i]], to = component[tree[i + 1]];
+            for (int v = 0; v < n; v++) {
+                if (component[v] == from) component[v] = to;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (component[v] != component[0]) {
+                fail("ProximityGraphs.minimumSpanningTree " + name + ": point " + v + " is not connected");
+            }
+        }
+        double expectedWeight = primWeight(points);
+        if (Math.abs(weight - expectedWeight) > 1e-9 * Math.max(1, expectedWeight)) {
+            fail("ProximityGraphs.minimumSpanningTree " + name + ": weight " + weight + ", expected " + expectedWeight);
+        }
+
+        int[] nearest = ProximityGraphs.nearestNeighbours(delaunay);
+        for (int i = 0; i < n; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < n; j++) {
+                if (j != i) best = Math.min(best, squaredDistance(points, j, points.x(i), points.y(i)));
+            }
+            int got = nearest[i];
+            if (n == 1 ? got != -1 : got < 0 || got == i || squaredDistance(points, got, points.x(i), points.y(i)) != best) {
+                fail("ProximityGraphs.nearestNeighbours " + name + ": point " + i + " got " + got);
+            }
+        }
+    }
+
+    private static double primWeight(PointSet points) {
+        int n = points.size();
+        boolean[] inTree = new boolean[n];
+        double[] best = new double[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        double weight = 0;
+        if (n > 0) best[0] = 0;
+        for (int step = 0; step < n; step++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && (u < 0 || best[v] < best[u])) u = v;
+            }
+            inTree[u] = true;
+            weight += Math.sqrt(best[u]);
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v]) best[v] = Math.min(best[v], squaredDistance(points, v, points.x(u), points.y(u)));
+            }
+        }
+        return weight;
+    }
+
+    // Sorted (min, max) keys of the edges between canonical vertices, self-loops dropped
+    private static long[] edgeKeys(int[] pairs, int[] canonical) {
+        long[] keys = new long[pairs.length / 2];
+        int count = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            int a = canonical[pairs[i]], b = canonical[pairs[i + 1]];
+            if (a != b) keys[count++] = (long) Math.min(a, b) << 32 | Math.max(a, b);
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static boolean contains(TriangleMesh mesh, int t, double x, double y) {
+        int[] triangles = mesh.getTriangles();
+        for (int e = 3 * t; e < 3 * t + 3; e++) {
+            int a = triangles[e], b = mesh.destination(e);
+            if (Predicates.orient2d(mesh.x(a), mesh.y(a), mesh.x(b), mesh.y(b), x, y) < 0) return false;
+        }
+        return true;
+    }
+
+    private static void expectDistances(String name, PointSet points, double x, double y, double[] expected, int[] actual) {
+        if (actual.length != expected.length) {
+            fail(name + ": " + actual.length + " neighbours, expected " + expected.length);
+        }
+        for (int i = 0; i < actual.length; i++) {
+            if (squaredDistance(points, actual[i], x, y) != expected[i]) {
+                fail(name + ": neighbour " + i + " of (" + x + ", " + y + ") is point " + actual[i]);
+            }
+        }
+    }
+
+    private static void expectEqual(String name, int[] expected, int[] actual) {
+        if (!Arrays.equals(expected, actual)) {
+            fail(name + ": expected " + Arrays.toString(expected) + ", got " + Arrays.toString(actual));
+        }
+    }
+
+    private static void expectEqual(String name, long[] expected, long[] actual) {
+        if (!Arrays.equals(expected, actual)) {
+            fail(name + ": " + actual.length + " edges, expected " + expected.length);
+        }
+    }
+
+    // The index as a one-element array, empty for -1
+    private static int[] nonNegative(int index) {
+        return index < 0 ? new int[0] : new int[] {index};
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static int compareXY(PointSet points, int a, int b) {
+        int c = Double.compare(points.x(a), points.x(b));
+        return c != 0 ? c : Double.compare(points.y(a), points.y(b));
+    }
+
+    private static double orientation(PointSet points, int a, int b, int c) {
+        return Predicates.orient2d(points.x(a), points.y(a), points.x(b), points.y(b), points.x(c), points.y(c));
+    }
+
+    private static double squaredDistance(PointSet points, int i, double x, double y) {
+        double dx = points.x(i) - x, dy = points.y(i) - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static void fail(String message) {
+        System.err.println("FAILED " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import kdtree.ConcurrentKdTree;
+import org.openjdk.jmh.annotations.*;
+
+// Queries racing with inserts and the background rebuilds they trigger; compare with
+// KdTreeBenchmark.nearestFlat for queries alone
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcurrentKdTreeBenchmark {
+
+    @Param({"10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    ConcurrentKdTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        PointSet points = distribution.generate(count);
+        tree = new ConcurrentKdTree();
+        tree.replace(points).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tree.close();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int nearest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return tree.nearest(random.nextDouble() * PointDistribution.EXTENT, random.nextDouble() * PointDistribution.EXTENT);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void insert() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        tree.insert(random.nextDouble() * PointDistribution.EXTENT, random.nextDouble() * PointDistribution.EXTENT);
+    }
+}
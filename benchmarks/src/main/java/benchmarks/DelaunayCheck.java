@@ -0,0 +1,306 @@
+package benchmarks;
+
+import geometry.IndexSort;
+import geometry.PointSet;
+import geometry.Predicates;
+import java.util.Arrays;
+import java.util.Random;
+import triangulation.DelaunayTriangulation;
+import triangulation.DynamicDelaunay;
+import triangulation.TriangleMesh;
+import triangulation.Triangulation;
+
+// Checks the meshes of DelaunayTriangulation, DynamicDelaunay and the sweep
+// Triangulation, then times a Delaunay build of 10^6 uniform points:
+//
+//   java -cp target/benchmarks.jar benchmarks.DelaunayCheck
+//
+// Every mesh must have consistent twins, counter-clockwise triangles, one vertex per
+// distinct input location, a convex boundary and 2n - 2 - h triangles for n vertices
+// of which h lie on the boundary. Delaunay meshes must also have empty circumcircles:
+// checked edge by edge everywhere and against every point for small inputs. The
+// large build must finish within -Ddelaunay.maxSeconds (10 by default).
+//
+// Exits with status 1 on the first failure.
+public class DelaunayCheck {
+    private static final int LARGE_COUNT = 1_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 3000; trial++) {
+            PointSet points = smallInput(random, trial);
+            String name = "trial " + trial + " (" + points.size() + " points)";
+
+            DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+            delaunay.performTriangulation();
+            checkMesh("DelaunayTriangulation " + name, delaunay.getMesh(), allOf(points), true);
+            checkEmptyCircles("DelaunayTriangulation " + name, delaunay.getMesh());
+
+            DelaunayTriangulation parallel = new DelaunayTriangulation(points);
+            parallel.setParallelism(4, 3);
+            parallel.performTriangulation();
+            if (!Arrays.equals(delaunay.getEdgeIndices(), parallel.getEdgeIndices())) {
+                fail("parallel DelaunayTriangulation " + name + ": edges differ from the sequential build");
+            }
+
+            Triangulation sweep = new Triangulation(points);
+            sweep.triangulateIndices();
+            checkMesh("Triangulation " + name, sweep.getMesh(), allOf(points), false);
+        }
+        System.out.println("small inputs: ok");
+
+        for (int trial = 0; trial < 200; trial++) {
+            checkDynamic(random, trial);
+        }
+        System.out.println("DynamicDelaunay: ok");
+
+        for (PointDistribution distribution : PointDistribution.values()) {
+            PointSet points = distribution.generate(20_000);
+            DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+            delaunay.performTriangulation();
+            checkMesh("DelaunayTriangulation " + distribution, delaunay.getMesh(), allOf(points), true);
+            Triangulation sweep = new Triangulation(points);
+            sweep.triangulateIndices();
+            checkMesh("Triangulation " + distribution, sweep.getMesh(), allOf(points), false);
+        }
+        System.out.println("distributions: ok");
+
+        double limit = Double.parseDouble(System.getProperty("delaunay.maxSeconds", "10"));
+        PointSet points = PointDistribution.UNIFORM.generate(LARGE_COUNT);
+        long start = System.nanoTime();
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        checkMesh("DelaunayTriangulation of " + LARGE_COUNT + " points", delaunay.getMesh(), allOf(points), true);
+        if (seconds > limit) {
+            fail(LARGE_COUNT + " points took " + seconds + " s, limit " + limit + " s");
+        }
+        System.out.printf("%d points: %.2f s, %d triangles%n", LARGE_COUNT, seconds, delaunay.getMesh().triangleCount());
+    }
+
+    // Random coordinates, or small integer coordinates with duplicates, collinear runs
+    // and cocircular points, or a single line
+    private static PointSet smallInput(Random random, int trial) {
+        int n = random.nextInt(trial < 1000 ? 12 : 80);
+        PointSet points = new PointSet(n);
+        for (int i = 0; i < n; i++) {
+            switch (trial % 3) {
+                case 0:
+                    points.add(random.nextDouble() * 100, random.nextDouble() * 100);
+                    break;
+                case 1:
+                    points.add(random.nextInt(8), random.nextInt(8));
+                    break;
+                default:
+                    int t = random.nextInt(20);
+                    points.add(t, trial % 2 == 0 ? 3 : 2 * t + 1);
+                    break;
+            }
+        }
+        return points;
+    }
+
+    // Random inserts, moves and removes, then the mesh against the live points and
+    // against a static build of them
+    private static void checkDynamic(Random random, int trial) {
+        DynamicDelaunay dynamic = new DynamicDelaunay();
+        boolean grid = trial % 2 == 1;
+        int[] ids = new int[120];
+        int live = 0;
+        for (int step = 0; step < 300; step++) {
+            int action = random.nextInt(10);
+            double x = grid ? random.nextInt(10) : random.nextDouble() * 100;
+            double y = grid ? random.nextInt(10) : random.nextDouble() * 100;
+            if (live > 0 && action == 0) {
+                int i = random.nextInt(live);
+                dynamic.remove(ids[i]);
+                ids[i] = ids[--live];
+            } else if (live > 0 && action == 1) {
+                dynamic.move(ids[random.nextInt(live)], x, y);
+            } else if (live < ids.length) {
+                ids[live++] = dynamic.insert(x, y);
+            }
+        }
+        int[] alive = Arrays.copyOf(ids, live);
+        String name = "DynamicDelaunay trial " + trial + " (" + live + " points)";
+        TriangleMesh mesh = dynamic.toMesh();
+        checkMesh(name, mesh, alive, true);
+        checkEmptyCircles(name, mesh);
+
+        if (!grid) {
+            // In general position the Delaunay triangulation is unique
+            PointSet points = new PointSet(live);
+            for (int id : alive) {
+                points.add(dynamic.x(id), dynamic.y(id));
+            }
+            DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+            delaunay.performTriangulation();
+            long[] expected = edgeKeys(delaunay.getEdgeIndices(), null);
+            long[] actual = edgeKeys(dynamic.edges(), alive);
+            if (!Arrays.equals(expected, actual)) {
+                fail(name + ": " + actual.length + " edges, a static build has " + expected.length);
+            }
+        }
+    }
+
+    // Sorted (min, max) keys of the edges; with ids given, vertices are first mapped to
+    // their position in ids
+    private static long[] edgeKeys(int[] pairs, int[] ids) {
+        long[] keys = new long[pairs.length / 2];
+        for (int i = 0; i < keys.length; i++) {
+            int a = pairs[2 * i], b = pairs[2 * i + 1];
+            if (ids != null) {
+                a = indexOf(ids, a);
+                b = indexOf(ids, b);
+            }
+            keys[i] = (long) Math.min(a, b) << 32 | Math.max(a, b);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        fail("vertex " + value + " is not a live point");
+        return -1;
+    }
+
+    private static int[] allOf(PointSet points) {
+        int[] vertices = new int[points.size()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = i;
+        }
+        return vertices;
+    }
+
+    // The invariants listed at the top; vertices are the point indices the mesh was
+    // built from
+    private static void checkMesh(String name, TriangleMesh mesh, int[] vertices, boolean delaunay) {
+        int[] triangles = mesh.getTriangles();
+        int[] halfedges = mesh.getHalfedges();
+        int locations = distinctLocations(mesh, vertices);
+        if (mesh.triangleCount() == 0) {
+            if (locations > 2) {
+                int a = vertices[0], b = farthestFrom(mesh, vertices, a);
+                for (int v : vertices) {
+                    if (orientation(mesh, a, b, v) != 0) {
+                        fail(name + ": no triangles for points that are not collinear");
+                    }
+                }
+            }
+            return;
+        }
+
+        boolean[] expected = new boolean[mesh.vertexCount()];
+        for (int v : vertices) {
+            expected[v] = true;
+        }
+        boolean[] used = new boolean[mesh.vertexCount()];
+        int usedCount = 0;
+        int[] boundaryNext = new int[mesh.vertexCount()];
+        Arrays.fill(boundaryNext, -1);
+        int boundary = 0;
+        for (int e = 0; e < triangles.length; e++) {
+            int a = triangles[e];
+            if (!expected[a]) {
+                fail(name + ": triangle " + e / 3 + " uses vertex " + a + ", which is not an input point");
+            }
+            if (!used[a]) {
+                used[a] = true;
+                usedCount++;
+            }
+            int twin = halfedges[e];
+            if (twin < 0) {
+                boundaryNext[a] = mesh.destination(e);
+                boundary++;
+            } else if (halfedges[twin] != e || mesh.origin(twin) != mesh.destination(e)
+                    || mesh.destination(twin) != a) {
+                fail(name + ": half-edge " + e + " and its twin " + twin + " do not match");
+            }
+        }
+        if (usedCount != locations) {
+            fail(name + ": " + usedCount + " vertices for " + locations + " distinct points");
+        }
+
+        for (int t = 0; t < mesh.triangleCount(); t++) {
+            if (orientation(mesh, triangles[3 * t], triangles[3 * t + 1], triangles[3 * t + 2]) <= 0) {
+                fail(name + ": triangle " + t + " is not counter-clockwise");
+            }
+        }
+        for (int e = 0; e < triangles.length; e++) {
+            int a = triangles[e], b = mesh.destination(e);
+            if (halfedges[e] < 0 && orientation(mesh, a, b, boundaryNext[b]) < 0) {
+                fail(name + ": boundary turns clockwise at vertex " + b);
+            }
+            if (delaunay && halfedges[e] > e) {
+                int c = mesh.origin(TriangleMesh.prevHalfedge(e));
+                int d = mesh.origin(TriangleMesh.prevHalfedge(halfedges[e]));
+                if (inCircle(mesh, a, b, c, d) > 0) {
+                    fail(name + ": edge " + a + "-" + b + " is not locally Delaunay");
+                }
+            }
+        }
+        if (mesh.triangleCount() != 2 * usedCount - 2 - boundary) {
+            fail(name + ": " + mesh.triangleCount() + " triangles for " + usedCount + " vertices, "
+                    + boundary + " on the boundary");
+        }
+    }
+
+    // No vertex strictly inside any triangle's circumcircle; quadratic, so small meshes only
+    private static void checkEmptyCircles(String name, TriangleMesh mesh) {
+        int[] triangles = mesh.getTriangles();
+        if (mesh.triangleCount() > 200) {
+            return;
+        }
+        for (int t = 0; t < mesh.triangleCount(); t++) {
+            for (int e = 0; e < triangles.length; e++) {
+                if (inCircle(mesh, triangles[3 * t], triangles[3 * t + 1], triangles[3 * t + 2], triangles[e]) > 0) {
+                    fail(name + ": vertex " + triangles[e] + " lies inside the circumcircle of triangle " + t);
+                }
+            }
+        }
+    }
+
+    private static int distinctLocations(TriangleMesh mesh, int[] vertices) {
+        PointSet points = new PointSet(vertices.length);
+        for (int v : vertices) {
+            points.add(mesh.x(v), mesh.y(v));
+        }
+        int[] sorted = IndexSort.sortedByXY(points);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || points.x(sorted[i]) != points.x(sorted[i - 1]) || points.y(sorted[i]) != points.y(sorted[i - 1])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int farthestFrom(TriangleMesh mesh, int[] vertices, int from) {
+        int farthest = from;
+        double best = -1;
+        for (int v : vertices) {
+            double dx = mesh.x(v) - mesh.x(from), dy = mesh.y(v) - mesh.y(from);
+            if (dx * dx + dy * dy > best) {
+                best = dx * dx + dy * dy;
+                farthest = v;
+            }
+        }
+        return farthest;
+    }
+
+    private static double orientation(TriangleMesh mesh, int a, int b, int c) {
+        return Predicates.orient2d(mesh.x(a), mesh.y(a), mesh.x(b), mesh.y(b), mesh.x(c), mesh.y(c));
+    }
+
+    private static double inCircle(TriangleMesh mesh, int a, int b, int c, int d) {
+        return Predicates.incircle(mesh.x(a), mesh.y(a), mesh.x(b), mesh.y(b), mesh.x(c), mesh.y(c), mesh.x(d), mesh.y(d));
+    }
+
+    private static void fail(String message) {
+        System.err.println("FAILED " + message);
+        System.exit(1);
+    }
+}
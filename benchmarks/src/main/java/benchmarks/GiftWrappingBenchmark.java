@@ -0,0 +1,35 @@
+package benchmarks;
+
+import convex_hull.GiftWrapping;
+import geometry.PointSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Gift wrapping is O(n h): on CIRCLE every point is a hull vertex, so the default
+// sizes stop at 10^4. Larger counts can be requested with -p count=...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GiftWrappingBenchmark {
+
+    @Param({"100", "10000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    PointSet points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = distribution.generate(count);
+    }
+
+    @Benchmark
+    public int[] giftWrapping() {
+        return GiftWrapping.findConvexHull(points);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import convex_hull.AklToussaintFilter;
+import convex_hull.ChansAlgorithm;
+import convex_hull.GrahamScan;
+import convex_hull.ParallelConvexHull;
+import geometry.PointSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HullBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    @Param({"true", "false"})
+    boolean prefilter;
+
+    PointSet points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = distribution.generate(count);
+        AklToussaintFilter.setEnabled(prefilter);
+    }
+
+    @Benchmark
+    public int[] grahamScan() {
+        return GrahamScan.findConvexHull(points);
+    }
+
+    @Benchmark
+    public int[] chan() {
+        return ChansAlgorithm.findConvexHull(points);
+    }
+
+    @Benchmark
+    public int[] parallelHull() {
+        return ParallelConvexHull.findConvexHull(points);
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import kdtree.FlatKdTree;
+import kdtree.KdTree;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class KdTreeBenchmark {
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"100", "10000", "1000000", "10000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    PointSet points;
+    KdTree tree;
+    FlatKdTree flatTree;
+    double[] queryX;
+    double[] queryY;
+    int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = distribution.generate(count);
+        tree = new KdTree(points);
+        flatTree = new FlatKdTree(points);
+        Random random = new Random(7);
+        queryX = new double[QUERY_COUNT];
+        queryY = new double[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryX[i] = random.nextDouble() * PointDistribution.EXTENT;
+            queryY[i] = random.nextDouble() * PointDistribution.EXTENT;
+        }
+    }
+
+    @Benchmark
+    public KdTree build() {
+        return new KdTree(points);
+    }
+
+    @Benchmark
+    public int nearest() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return tree.nearest(queryX[q], queryY[q]);
+    }
+
+    @Benchmark
+    public int[] kNearest() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return tree.kNearest(queryX[q], queryY[q], 8);
+    }
+
+    // Run with -prof gc: gc.alloc.rate.norm of build and buildFlat is about the size
+    // of each tree (build also counts a temporary index array)
+    @Benchmark
+    public FlatKdTree buildFlat() {
+        return new FlatKdTree(points);
+    }
+
+    @Benchmark
+    public int nearestFlat() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return flatTree.nearest(queryX[q], queryY[q]);
+    }
+
+    @Benchmark
+    public int[] kNearestFlat() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return flatTree.kNearest(queryX[q], queryY[q], 8);
+    }
+}
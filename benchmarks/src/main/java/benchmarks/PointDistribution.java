@@ -0,0 +1,72 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.Random;
+
+// Input distributions shared by all benchmarks. Generation is seeded so every run
+// of a given (count, distribution) pair sees the same points.
+public enum PointDistribution {
+    UNIFORM {
+        @Override
+        void fill(PointSet points, int count, Random random) {
+            for (int i = 0; i < count; i++) {
+                points.add(random.nextDouble() * EXTENT, random.nextDouble() * EXTENT);
+            }
+        }
+    },
+    GAUSSIAN_CLUSTERS {
+        @Override
+        void fill(PointSet points, int count, Random random) {
+            int clusters = 16;
+            double[] cx = new double[clusters];
+            double[] cy = new double[clusters];
+            for (int c = 0; c < clusters; c++) {
+                cx[c] = random.nextDouble() * EXTENT;
+                cy[c] = random.nextDouble() * EXTENT;
+            }
+            double sigma = EXTENT / 50;
+            for (int i = 0; i < count; i++) {
+                int c = random.nextInt(clusters);
+                points.add(cx[c] + random.nextGaussian() * sigma, cy[c] + random.nextGaussian() * sigma);
+            }
+        }
+    },
+    CIRCLE {
+        @Override
+        void fill(PointSet points, int count, Random random) {
+            double radius = EXTENT / 2;
+            for (int i = 0; i < count; i++) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                points.add(radius + radius * Math.cos(angle), radius + radius * Math.sin(angle));
+            }
+        }
+    },
+    NEAR_COLLINEAR {
+        @Override
+        void fill(PointSet points, int count, Random random) {
+            for (int i = 0; i < count; i++) {
+                double t = random.nextDouble() * EXTENT;
+                points.add(t, 0.5 * t + random.nextGaussian() * 1e-3);
+            }
+        }
+    },
+    INTEGER_GRID {
+        @Override
+        void fill(PointSet points, int count, Random random) {
+            int side = (int) Math.ceil(Math.sqrt(count));
+            for (int i = 0; i < count; i++) {
+                points.add(i % side, i / side);
+            }
+        }
+    };
+
+    static final double EXTENT = 10_000;
+
+    abstract void fill(PointSet points, int count, Random random);
+
+    public PointSet generate(int count) {
+        PointSet points = new PointSet(count);
+        fill(points, count, new Random(42L + ordinal()));
+        return points;
+    }
+}
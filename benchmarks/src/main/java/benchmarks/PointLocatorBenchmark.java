@@ -0,0 +1,61 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import triangulation.DelaunayTriangulation;
+import triangulation.PointLocator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PointLocatorBenchmark {
+    private static final int QUERY_COUNT = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    PointLocator jumpAndWalk;
+    PointLocator hierarchy;
+    PointSet queries;
+    int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(distribution.generate(count));
+        delaunay.performTriangulation();
+        jumpAndWalk = new PointLocator(delaunay.getMesh());
+        hierarchy = new PointLocator(delaunay.getMesh(), true);
+        Random random = new Random(7);
+        queries = new PointSet(QUERY_COUNT);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries.add(random.nextDouble() * PointDistribution.EXTENT, random.nextDouble() * PointDistribution.EXTENT);
+        }
+    }
+
+    @Benchmark
+    public int jumpAndWalk() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return jumpAndWalk.locate(queries.x(q), queries.y(q));
+    }
+
+    @Benchmark
+    public int hierarchy() {
+        int q = nextQuery++ & (QUERY_COUNT - 1);
+        return hierarchy.locate(queries.x(q), queries.y(q));
+    }
+
+    // Throughput in queries per second
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int[] batch() {
+        return jumpAndWalk.locateAll(queries);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import geometry.IndexSort;
+import geometry.PointSet;
+import geometry.Predicates;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of the filtered predicates against the plain double formulas they replace.
+// Each call tests neighbouring points in sorted order, the kind of local
+// configuration hull and triangulation code asks about; on INTEGER_GRID and
+// NEAR_COLLINEAR many of them are degenerate and take the exact path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicatesBenchmark {
+    private static final int COUNT = 4096;
+
+    @Param
+    PointDistribution distribution;
+
+    double[] xs;
+    double[] ys;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointSet points = distribution.generate(COUNT);
+        int[] order = IndexSort.sortedByXY(points);
+        xs = new double[COUNT];
+        ys = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            xs[i] = points.x(order[i]);
+            ys[i] = points.y(order[i]);
+        }
+    }
+
+    @Benchmark
+    public double orient2dNaive() {
+        int i = next++ & (COUNT - 4);
+        return (xs[i + 1] - xs[i]) * (ys[i + 2] - ys[i]) - (ys[i + 1] - ys[i]) * (xs[i + 2] - xs[i]);
+    }
+
+    @Benchmark
+    public double orient2dFiltered() {
+        int i = next++ & (COUNT - 4);
+        return Predicates.orient2d(xs[i], ys[i], xs[i + 1], ys[i + 1], xs[i + 2], ys[i + 2]);
+    }
+
+    @Benchmark
+    public double incircleNaive() {
+        int i = next++ & (COUNT - 4);
+        double adx = xs[i] - xs[i + 3], ady = ys[i] - ys[i + 3];
+        double bdx = xs[i + 1] - xs[i + 3], bdy = ys[i + 1] - ys[i + 3];
+        double cdx = xs[i + 2] - xs[i + 3], cdy = ys[i + 2] - ys[i + 3];
+        return (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+             + (bdx * bdx + bdy * bdy) * (cdx * ady - adx * cdy)
+             + (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady);
+    }
+
+    @Benchmark
+    public double incircleFiltered() {
+        int i = next++ & (COUNT - 4);
+        return Predicates.incircle(xs[i], ys[i], xs[i + 1], ys[i + 1], xs[i + 2], ys[i + 2], xs[i + 3], ys[i + 3]);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import graph.ProximityGraphs;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import triangulation.DelaunayTriangulation;
+
+// Measures the graphs only; the triangulation they are read from is built in setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProximityGraphBenchmark {
+
+    @Param({"10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    DelaunayTriangulation delaunay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        delaunay = new DelaunayTriangulation(distribution.generate(count));
+        delaunay.performTriangulation();
+    }
+
+    @Benchmark
+    public int[] minimumSpanningTree() {
+        return ProximityGraphs.minimumSpanningTree(delaunay);
+    }
+
+    @Benchmark
+    public int[] nearestNeighbours() {
+        return ProximityGraphs.nearestNeighbours(delaunay);
+    }
+
+    @Benchmark
+    public int[] gabrielGraph() {
+        return ProximityGraphs.gabrielGraph(delaunay);
+    }
+
+    @Benchmark
+    public int[] relativeNeighbourhoodGraph() {
+        return ProximityGraphs.relativeNeighbourhoodGraph(delaunay);
+    }
+}
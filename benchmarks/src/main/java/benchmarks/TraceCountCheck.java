@@ -0,0 +1,120 @@
+package benchmarks;
+
+import convex_hull.AklToussaintFilter;
+import convex_hull.ParallelConvexHull;
+import geometry.GeometryTracer;
+import geometry.OperationCounters;
+import geometry.PointSet;
+import geometry.Trace;
+import kdtree.FlatKdTree;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import triangulation.DelaunayTriangulation;
+
+// Checks that the parallel variants report the same operation counts as the
+// sequential ones, i.e. that work done on fork-join workers is counted too:
+//
+//   java -Dgeometry.trace=true -cp target/benchmarks.jar benchmarks.TraceCountCheck
+//
+// Exits with status 1 on the first mismatch.
+public class TraceCountCheck {
+    private static OperationCounters last;
+
+    public static void main(String[] args) {
+        if (!Boolean.getBoolean("geometry.trace")) {
+            System.err.println("run with -Dgeometry.trace=true");
+            System.exit(2);
+        }
+        PointSet points = PointDistribution.UNIFORM.generate(200_000);
+
+        expectSame("DelaunayTriangulation.performTriangulation",
+                () -> triangulate(points, 1), () -> triangulate(points, 4));
+
+        // Same task tree either way; the reference runs all of it on one worker, inside
+        // the traced invocation, so it is counted even without scope propagation
+        PointSet hullPoints = PointDistribution.CIRCLE.generate(100_000);  // every point survives the filter
+        expectSame("ParallelConvexHull.findConvexHull",
+                () -> onOneWorker(pool -> ParallelConvexHull.findConvexHull(hullPoints, pool, 1000)),
+                () -> onPool(4, pool -> ParallelConvexHull.findConvexHull(hullPoints, pool, 1000)));
+
+        PointSet filterPoints = PointDistribution.UNIFORM.generate(600_000);
+        expectSame("AklToussaintFilter.filter",
+                () -> AklToussaintFilter.filter(filterPoints, null),
+                () -> onPool(4, pool -> AklToussaintFilter.filter(filterPoints, pool)));
+
+        FlatKdTree tree = new FlatKdTree(PointDistribution.UNIFORM.generate(100_000));
+        Random random = new Random(7);
+        PointSet queries = new PointSet(5000);
+        for (int i = 0; i < 5000; i++) {
+            queries.add(random.nextDouble() * PointDistribution.EXTENT, random.nextDouble() * PointDistribution.EXTENT);
+        }
+        int[] neighbours = new int[5000 * 8];
+        double[] distances = new double[neighbours.length];
+        expectSame("FlatKdTree.kNearestBatch",
+                () -> { tree.kNearest(queries, 8, neighbours, distances, null); return null; },
+                () -> onPool(4, pool -> { tree.kNearest(queries, 8, neighbours, distances, pool); return null; }));
+    }
+
+    // Runs task on this thread with a pool of the given size
+    private static Object onPool(int threads, Function<ForkJoinPool, ?> task) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return task.apply(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Runs task on the only worker of a new pool, handing it that pool
+    private static Object onOneWorker(Function<ForkJoinPool, ?> task) {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            return pool.submit(() -> task.apply(pool)).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static DelaunayTriangulation triangulate(PointSet points, int parallelism) {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.setParallelism(parallelism, 1000);
+        delaunay.performTriangulation();
+        return delaunay;
+    }
+
+    // Counters of the last completed invocation of algorithm while run executes
+    private static OperationCounters counters(String algorithm, Supplier<?> run) {
+        last = null;
+        Trace.setTracer(new GeometryTracer() {
+            @Override
+            public void event(String name, String message) {
+            }
+
+            @Override
+            public void completed(String name, OperationCounters counters, long elapsedNanos) {
+                if (name.equals(algorithm)) last = counters;
+            }
+        });
+        run.get();
+        if (last == null) {
+            fail(algorithm + " was not traced");
+        }
+        return last;
+    }
+
+    private static void expectSame(String algorithm, Supplier<?> sequential, Supplier<?> parallel) {
+        String expected = counters(algorithm, sequential).toString();
+        String actual = counters(algorithm, parallel).toString();
+        if (!expected.equals(actual)) {
+            fail(algorithm + ": sequential " + expected + ", parallel " + actual);
+        }
+        System.out.println(algorithm + ": " + actual);
+    }
+
+    private static void fail(String message) {
+        System.err.println("FAILED " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import geometry.PointSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import triangulation.Triangulation;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TriangulationBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    PointSet points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = distribution.generate(count);
+    }
+
+    @Benchmark
+    public int[] sweep() {
+        return new Triangulation(points).triangulateIndices();
+    }
+}
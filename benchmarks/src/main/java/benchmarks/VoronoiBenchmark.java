@@ -0,0 +1,45 @@
+package benchmarks;
+
+import geometry.BoundingBox;
+import geometry.PointSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import triangulation.DelaunayTriangulation;
+import voronoi.VoronoiDiagram;
+
+// Measures the Voronoi construction only; the triangulation is built in setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VoronoiBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int count;
+
+    @Param
+    PointDistribution distribution;
+
+    DelaunayTriangulation delaunay;
+    BoundingBox bounds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointSet points = distribution.generate(count);
+        delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        bounds = BoundingBox.of(points);
+    }
+
+    @Benchmark
+    public VoronoiDiagram construct() {
+        return new VoronoiDiagram(delaunay);
+    }
+
+    @Benchmark
+    public VoronoiDiagram constructClipped() {
+        return new VoronoiDiagram(delaunay, bounds);
+    }
+}
@@ -0,0 +1,378 @@
+package cli;
+
+import convex_hull.AklToussaintFilter;
+import convex_hull.ChansAlgorithm;
+import convex_hull.GiftWrapping;
+import convex_hull.GrahamScan;
+import convex_hull.ParallelConvexHull;
+import geometry.BoundingBox;
+import geometry.PointSet;
+import graph.ProximityGraphs;
+import io.GeometryFileWriter;
+import io.GeometryFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import kdtree.FlatKdTree;
+import kdtree.KdTree;
+import triangulation.DelaunayTriangulation;
+import triangulation.PointLocator;
+import triangulation.TriangleMesh;
+import triangulation.Triangulation;
+import voronoi.VoronoiDiagram;
+
+// Headless entry point for batch jobs. Works on PointSet only and its module does not
+// read java.desktop, so no display is needed.
+//
+//   java -p out -m Geometry.cli/cli.GeometryCli <command> [options] <input> [output]
+//
+// Inputs are text point files or binary geometry files (see io.GeometryFormat).
+// Results go to the output file (stdout if omitted or "-"), in the binary format
+// when its name ends with ".geom"; timings and the peak heap go to stderr. A binary
+// output starts with the input points, so the index sections can be read without
+// the original input and the file can be fed back in as one.
+public final class GeometryCli {
+    private static final String USAGE = String.join("\n",
+            "usage: cli.GeometryCli <command> [options] <input> [output]",
+            "",
+            "commands:",
+            "  hull      [--method=graham|gift|chan|parallel]   hull vertices as 'index x y'",
+            "            [--no-prefilter]                       keep interior points (no Akl-Toussaint filter)",
+            "  delaunay  [--edges]                              triangles as 'a b c', or edges as 'a b'",
+            "            [--threads=n]                          build on n fork-join threads",
+            "  sweep     [--edges]                              any triangulation (sweep line, not Delaunay)",
+            "  locate    --queries=file [--hierarchy]           Delaunay triangle containing each query, -1 outside",
+            "  voronoi   [--clip[=minX,minY,maxX,maxY]]         edges as 'x1 y1 x2 y2 siteA siteB ray'",
+            "  kdtree    [--queries=file] [--k=n]               k nearest point indices per query",
+            "            [--flat] [--threads=n]                 implicit-array tree (FlatKdTree), batch on n threads",
+            "  graph     [--type=emst|nn|gabriel|rng]           proximity graph edges as 'a b' (nn: one per point)",
+            "  convert                                          the input points as 'x y'",
+            "",
+            "Input files hold one point per line as 'x y' or 'x,y'; '#' starts a comment line,",
+            "or are binary geometry files. Output files named *.geom are written in binary.");
+
+    private GeometryCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static int run(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "" : arg.substring(eq + 1));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() < 2 || positional.size() > 3 || options.containsKey("help")) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        String command = positional.get(0);
+        Path input = Paths.get(positional.get(1));
+        String output = positional.size() == 3 ? positional.get(2) : "-";
+
+        long start = System.nanoTime();
+        PointSet points = PointFiles.read(input);
+        String queryFile = options.get("queries");
+        PointSet queries = queryFile == null ? null : PointFiles.read(Paths.get(queryFile));
+        long loaded = System.nanoTime();
+
+        Result result;
+        try {
+            switch (command) {
+                case "hull":
+                    AklToussaintFilter.setEnabled(!options.containsKey("no-prefilter"));
+                    result = hull(points, options.getOrDefault("method", "graham"));
+                    break;
+                case "delaunay":
+                    result = delaunay(points, options.containsKey("edges"),
+                            Integer.parseInt(options.getOrDefault("threads", "1")));
+                    break;
+                case "sweep":
+                    result = sweep(points, options.containsKey("edges"));
+                    break;
+                case "locate":
+                    result = locate(points, queries, options.containsKey("hierarchy"));
+                    break;
+                case "voronoi":
+                    result = voronoi(points, options.get("clip"));
+                    break;
+                case "kdtree":
+                    result = kdtree(points, queries, Integer.parseInt(options.getOrDefault("k", "1")),
+                            options.containsKey("flat"), Integer.parseInt(options.getOrDefault("threads", "1")));
+                    break;
+                case "graph":
+                    result = graph(points, options.getOrDefault("type", "emst"));
+                    break;
+                case "convert":
+                    result = new Result(out -> PointFiles.writeText(points, out), writer -> { });
+                    break;
+                default:
+                    System.err.println("unknown command: " + command);
+                    System.err.println(USAGE);
+                    return 2;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            return 2;
+        }
+        long computed = System.nanoTime();
+
+        if (output.endsWith(".geom")) {
+            try (GeometryFileWriter writer = GeometryFileWriter.create(Paths.get(output))) {
+                writer.writePoints(points);
+                result.binary.writeTo(writer);
+            }
+        } else {
+            try (Writer out = openOutput(output)) {
+                result.text.writeTo(out);
+            }
+        }
+        long written = System.nanoTime();
+
+        System.err.printf("points: %d, load: %.1f ms, %s: %.1f ms, write: %.1f ms, peak heap: %.1f MB%n",
+                points.size(), millis(start, loaded), command, millis(loaded, computed),
+                millis(computed, written), peakHeapBytes() / (1024.0 * 1024.0));
+        if (command.equals("hull") && AklToussaintFilter.isEnabled()) {
+            System.err.printf("prefilter dropped %d of %d points%n",
+                    AklToussaintFilter.droppedPoints(), AklToussaintFilter.inputPoints());
+        }
+        return 0;
+    }
+
+    // Output writer; stdout is flushed but not closed
+    private static Writer openOutput(String output) throws IOException {
+        if (output.equals("-")) {
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8);
+    }
+
+    private static Result hull(PointSet points, String method) {
+        int[] hull;
+        switch (method) {
+            case "graham":
+                hull = GrahamScan.findConvexHull(points);
+                break;
+            case "gift":
+                hull = GiftWrapping.findConvexHull(points);
+                break;
+            case "chan":
+                hull = ChansAlgorithm.findConvexHull(points);
+                break;
+            case "parallel":
+                hull = ParallelConvexHull.findConvexHull(points);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown hull method: " + method);
+        }
+        return new Result(out -> {
+            StringBuilder line = new StringBuilder(64);
+            for (int index : hull) {
+                line.setLength(0);
+                line.append(index).append(' ').append(points.x(index)).append(' ').append(points.y(index)).append('\n');
+                out.append(line);
+            }
+        }, writer -> writer.writeIndices(GeometryFormat.HULL, 1, hull));
+    }
+
+    private static Result delaunay(PointSet points, boolean edges, int threads) {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.setParallelism(threads);
+        delaunay.performTriangulation();
+        if (edges) {
+            int[] pairs = delaunay.getEdgeIndices();
+            return new Result(writeTuples(pairs, 2), writer -> writer.writeIndices(GeometryFormat.EDGES, 2, pairs));
+        }
+        TriangleMesh mesh = delaunay.getMesh();
+        return new Result(writeTuples(mesh.getTriangles(), 3), writer -> writer.writeMesh(mesh));
+    }
+
+    private static Result sweep(PointSet points, boolean edges) {
+        Triangulation triangulation = new Triangulation(points);
+        int[] pairs = triangulation.triangulateIndices();
+        if (edges) {
+            return new Result(writeTuples(pairs, 2), writer -> writer.writeIndices(GeometryFormat.EDGES, 2, pairs));
+        }
+        TriangleMesh mesh = triangulation.getMesh();
+        return new Result(writeTuples(mesh.getTriangles(), 3), writer -> writer.writeMesh(mesh));
+    }
+
+    private static Result locate(PointSet points, PointSet queries, boolean hierarchy) {
+        if (queries == null) {
+            throw new IllegalArgumentException("locate needs --queries=file");
+        }
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        int[] triangles = new PointLocator(delaunay.getMesh(), hierarchy).locateAll(queries);
+        return new Result(writeTuples(triangles, 1), writer -> writer.writeIndices(GeometryFormat.LOCATIONS, 1, triangles));
+    }
+
+    private static Result voronoi(PointSet points, String clip) {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        VoronoiDiagram voronoi;
+        if (clip == null) {
+            voronoi = new VoronoiDiagram(delaunay);
+        } else {
+            voronoi = new VoronoiDiagram(delaunay, parseBox(clip, points));
+        }
+        return new Result(out -> {
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < voronoi.edgeCount(); i++) {
+                line.setLength(0);
+                line.append(voronoi.x1(i)).append(' ').append(voronoi.y1(i)).append(' ')
+                    .append(voronoi.x2(i)).append(' ').append(voronoi.y2(i)).append(' ')
+                    .append(voronoi.siteA(i)).append(' ').append(voronoi.siteB(i)).append(' ')
+                    .append(voronoi.isRay(i) ? 1 : 0).append('\n');
+                out.append(line);
+            }
+        }, writer -> writer.writeVoronoi(voronoi));
+    }
+
+    private static Result kdtree(PointSet points, PointSet queries, int k, boolean flat, int threads) {
+        if (k < 1 || threads < 1) {
+            throw new IllegalArgumentException("k and threads must be positive");
+        }
+        KdTree tree = flat ? null : new KdTree(points);
+        FlatKdTree flatTree = flat ? new FlatKdTree(points) : null;
+        // Every row has the same length, at most the number of points
+        int width = Math.min(k, points.size());
+        if (queries == null || width == 0) {
+            return new Result(out -> { }, writer -> { });
+        }
+        int[] neighbours = new int[queries.size() * width];
+        if (flat) {
+            double[] distances = new double[neighbours.length];
+            ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads);
+            try {
+                flatTree.kNearest(queries, width, neighbours, distances, pool);
+            } finally {
+                if (pool != null) pool.shutdown();
+            }
+        } else {
+            for (int q = 0; q < queries.size(); q++) {
+                System.arraycopy(tree.kNearest(queries.x(q), queries.y(q), k), 0, neighbours, q * width, width);
+            }
+        }
+        return new Result(writeTuples(neighbours, width),
+                writer -> writer.writeIndices(GeometryFormat.NEIGHBOURS, width, neighbours));
+    }
+
+    private static Result graph(PointSet points, String type) {
+        DelaunayTriangulation delaunay = new DelaunayTriangulation(points);
+        delaunay.performTriangulation();
+        int[] pairs;
+        switch (type) {
+            case "emst":
+                pairs = ProximityGraphs.minimumSpanningTree(delaunay);
+                break;
+            case "nn":
+                int[] nearest = ProximityGraphs.nearestNeighbours(delaunay);
+                pairs = new int[nearest.length < 2 ? 0 : nearest.length * 2];
+                for (int i = 0; i * 2 < pairs.length; i++) {
+                    pairs[i * 2] = i;
+                    pairs[i * 2 + 1] = nearest[i];
+                }
+                break;
+            case "gabriel":
+                pairs = ProximityGraphs.gabrielGraph(delaunay);
+                break;
+            case "rng":
+                pairs = ProximityGraphs.relativeNeighbourhoodGraph(delaunay);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown graph type: " + type);
+        }
+        return new Result(writeTuples(pairs, 2), writer -> writer.writeIndices(GeometryFormat.EDGES, 2, pairs));
+    }
+
+    private static TextOutput writeTuples(int[] values, int width) {
+        return out -> {
+            StringBuilder line = new StringBuilder(16 * width);
+            for (int i = 0; i < values.length; i += width) {
+                line.setLength(0);
+                for (int j = 0; j < width; j++) {
+                    if (j > 0) line.append(' ');
+                    line.append(values[i + j]);
+                }
+                out.append(line.append('\n'));
+            }
+        };
+    }
+
+    // "--clip" alone clips to the bounding box of the input
+    private static BoundingBox parseBox(String value, PointSet points) {
+        if (value.isEmpty()) {
+            return BoundingBox.of(points);
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("clip box must be minX,minY,maxX,maxY");
+        }
+        return new BoundingBox(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                               Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static double millis(long from, long to) {
+        return (to - from) / 1e6;
+    }
+
+    // Output of a command in both formats, written after the timed part
+    private static final class Result {
+        final TextOutput text;
+        final BinaryOutput binary;
+
+        Result(TextOutput text, BinaryOutput binary) {
+            this.text = text;
+            this.binary = binary;
+        }
+    }
+
+    private interface TextOutput {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    private interface BinaryOutput {
+        void writeTo(GeometryFileWriter writer) throws IOException;
+    }
+}
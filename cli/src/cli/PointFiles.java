@@ -0,0 +1,83 @@
+package cli;
+
+import geometry.PointSet;
+import io.GeometryFileReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Plain text point files: one point per line as "x y" or "x,y". Blank lines and
+// lines starting with '#' are skipped.
+public final class PointFiles {
+
+    private PointFiles() {
+    }
+
+    // Text or binary geometry file, told apart by the binary magic number
+    public static PointSet read(Path file) throws IOException {
+        if (GeometryFileReader.isGeometryFile(file)) {
+            try (GeometryFileReader reader = GeometryFileReader.open(file)) {
+                return reader.points().toPointSet();
+            }
+        }
+        return readText(file);
+    }
+
+    public static PointSet readText(Path file) throws IOException {
+        PointSet points = new PointSet(1024);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int start = skipSeparators(line, 0);
+                if (start == line.length() || line.charAt(start) == '#') {
+                    continue;
+                }
+                int end = nextSeparator(line, start);
+                int yStart = skipSeparators(line, end);
+                int yEnd = nextSeparator(line, yStart);
+                if (yStart == yEnd) {
+                    throw new IOException(file + ":" + lineNumber + ": expected two coordinates");
+                }
+                try {
+                    points.add(Double.parseDouble(line.substring(start, end)),
+                               Double.parseDouble(line.substring(yStart, yEnd)));
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return points;
+    }
+
+    public static void writeText(PointSet points, Writer out) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < points.size(); i++) {
+            line.setLength(0);
+            line.append(points.x(i)).append(' ').append(points.y(i)).append('\n');
+            out.append(line);
+        }
+    }
+
+    private static int skipSeparators(String line, int from) {
+        while (from < line.length() && isSeparator(line.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int nextSeparator(String line, int from) {
+        while (from < line.length() && !isSeparator(line.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == ',' || c == ';';
+    }
+}
@@ -0,0 +1,4 @@
+module Geometry.cli {
+    requires Geometry;
+    requires java.management;  // peak heap in the timings
+}
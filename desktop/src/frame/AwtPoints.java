@@ -0,0 +1,30 @@
+package frame;
+
+import geometry.PointSet;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+// Conversions between java.awt.Point lists used by the Swing frame and PointSet.
+// Index i of the point set always corresponds to points.get(i).
+public final class AwtPoints {
+
+    private AwtPoints() {
+    }
+
+    public static PointSet toPointSet(List<Point> points) {
+        PointSet set = new PointSet(points.size());
+        for (Point p : points) {
+            set.add(p.x, p.y);
+        }
+        return set;
+    }
+
+    public static ArrayList<Point> select(List<Point> points, int[] indices) {
+        ArrayList<Point> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(points.get(index));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package frame;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Results of whole-set computations, keyed by a name and the points version they were
+// computed from. A result stays valid as long as the points do not change, so showing
+// a view again, or a computation that needs another one (Voronoi needs Delaunay), takes
+// it from here instead of recomputing.
+//
+// Entries carry an estimate of their size in bytes; the least recently used ones are
+// evicted once the total exceeds the bound. Results of older versions are never asked
+// for again and age out the same way.
+//
+// Used from the event dispatch thread and the compute worker, so every access locks.
+final class ComputationCache {
+    static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    private static final class Key {
+        final String name;
+        final long version;
+
+        Key(String name, long version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return version == other.version && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, version);
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long bytes;
+
+        Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // access order
+    private long bytes;
+
+    ComputationCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache bound must not be negative.");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    // The result cached for name at version, or null
+    @SuppressWarnings("unchecked")
+    synchronized <T> T get(String name, long version) {
+        Entry entry = entries.get(new Key(name, version));
+        return entry == null ? null : (T) entry.value;
+    }
+
+    // A result larger than the whole bound is not kept
+    synchronized void put(String name, long version, Object value, long size) {
+        Key key = new Key(name, version);
+        Entry old = entries.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        if (size > maxBytes) {
+            return;
+        }
+        entries.put(key, new Entry(value, size));
+        bytes += size;
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    // Computes outside the lock, so a long computation does not hold up lookups
+    <T> T computeIfAbsent(String name, long version, Supplier<T> compute, ToLongFunction<T> size) {
+        T value = get(name, version);
+        if (value == null) {
+            value = compute.get();
+            put(name, version, value, size.applyAsLong(value));
+        }
+        return value;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+}
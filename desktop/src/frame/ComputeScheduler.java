@@ -0,0 +1,190 @@
+package frame;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+// Runs the visualizer's heavy recomputations on one background thread so the event
+// dispatch thread (EDT) only takes snapshots and applies results.
+//
+// Jobs are keyed by name. Submitting a key that is still waiting replaces the waiting
+// job, so a burst of requests (a drag) runs once. The snapshot of the input is taken
+// on the EDT when the job starts, not when it is submitted, and is stamped with the
+// points version. pointsChanged() bumps the version and cancels the running job: it
+// stops at its next progress report, or its result is dropped when it finishes, and
+// it is queued again to run on the new points. Results are delivered on the EDT.
+//
+// Every method must be called on the EDT.
+final class ComputeScheduler {
+
+    interface Job<S, R> {
+        R compute(S snapshot, Progress progress);
+    }
+
+    interface ProgressListener {
+        // fraction in [0, 1] for the running job; job is null once the worker is idle
+        void progress(String job, double fraction);
+    }
+
+    // Handed to a running job. report() throws CancellationException once the job is
+    // stale, so reporting progress is also the cancellation point.
+    final class Progress {
+        private final String job;
+        private final AtomicBoolean posted = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile double fraction;
+
+        private Progress(String job) {
+            this.job = job;
+        }
+
+        void report(double fraction) {
+            if (cancelled) {
+                throw new CancellationException(job + " was cancelled");
+            }
+            this.fraction = fraction;
+            // At most one pending update on the EDT, carrying the latest fraction
+            if (posted.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    posted.set(false);
+                    if (listener != null && running != null && running.progress == this && !cancelled) {
+                        listener.progress(job, this.fraction);
+                    }
+                });
+            }
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final class Task<S, R> {
+        final String key;
+        final Supplier<S> snapshot;
+        final Job<S, R> job;
+        final Consumer<R> onResult;
+        long version;
+        Progress progress;
+        boolean dropped;  // cancelled for good, not queued again
+
+        Task(String key, Supplier<S> snapshot, Job<S, R> job, Consumer<R> onResult) {
+            this.key = key;
+            this.snapshot = snapshot;
+            this.job = job;
+            this.onResult = onResult;
+        }
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "geometry-compute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LinkedHashMap<String, Task<?, ?>> waiting = new LinkedHashMap<>();
+    private Task<?, ?> running;
+    private long version;
+    private ProgressListener listener;
+
+    void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    <S, R> void submit(String key, Supplier<S> snapshot, Job<S, R> job, Consumer<R> onResult) {
+        checkThread();
+        waiting.remove(key);
+        waiting.put(key, new Task<>(key, snapshot, job, onResult));
+        if (running != null && running.key.equals(key)) {
+            running.dropped = true;  // superseded by the new request
+            running.progress.cancelled = true;
+        }
+        dispatch();
+    }
+
+    // The points changed: whatever is running works on an old snapshot
+    void pointsChanged() {
+        checkThread();
+        version++;
+        if (running != null) {
+            running.progress.cancelled = true;
+        }
+    }
+
+    // Withdraws the job with this key, waiting or running; its result is never delivered
+    void cancel(String key) {
+        checkThread();
+        waiting.remove(key);
+        if (running != null && running.key.equals(key)) {
+            running.dropped = true;
+            running.progress.cancelled = true;
+        }
+    }
+
+    void cancelAll() {
+        checkThread();
+        waiting.clear();
+        if (running != null) {
+            running.dropped = true;
+            running.progress.cancelled = true;
+        }
+    }
+
+    private void dispatch() {
+        if (running != null || waiting.isEmpty()) {
+            return;
+        }
+        Iterator<Task<?, ?>> it = waiting.values().iterator();
+        Task<?, ?> task = it.next();
+        it.remove();
+        start(task);
+    }
+
+    private <S, R> void start(Task<S, R> task) {
+        task.version = version;
+        task.progress = new Progress(task.key);
+        task.dropped = false;
+        S snapshot = task.snapshot.get();
+        running = task;
+        if (listener != null) {
+            listener.progress(task.key, 0);
+        }
+        worker.execute(() -> {
+            try {
+                R result = task.job.compute(snapshot, task.progress);
+                SwingUtilities.invokeLater(() -> finished(task, result, null));
+            } catch (RuntimeException | Error e) {
+                SwingUtilities.invokeLater(() -> finished(task, null, e));
+            }
+        });
+    }
+
+    private <S, R> void finished(Task<S, R> task, R result, Throwable failure) {
+        running = null;
+        boolean stale = task.progress.cancelled || task.version != version;
+        if (failure != null && !(failure instanceof CancellationException && stale)) {
+            System.err.println(task.key + " failed: " + failure);
+        } else if (stale) {
+            if (!task.dropped && !waiting.containsKey(task.key)) {
+                waiting.put(task.key, task);  // run again on the current points
+            }
+        } else {
+            task.onResult.accept(result);
+        }
+        dispatch();
+        if (running == null && listener != null) {
+            listener.progress(null, 1);
+        }
+    }
+
+    private static void checkThread() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("ComputeScheduler must be used on the event dispatch thread.");
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package triangulation;
+package frame;
 
 import java.awt.Point;
 
@@ -0,0 +1,686 @@
+package frame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.stream.Collectors;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+
+import triangulation.Triangulation;
+import voronoi.VoronoiDiagram;
+import voronoi.VoronoiDiagram.LineSegment;
+import triangulation.DelaunayTriangulation;
+import triangulation.DynamicDelaunay;
+import kdtree.KdTree;
+import geometry.BoundingBox;
+import geometry.IntList;
+import geometry.PointSet;
+import geometry.SpatialHashGrid;
+import convex_hull.ChansAlgorithm;
+import convex_hull.DynamicConvexHull;
+import convex_hull.GiftWrapping;
+import convex_hull.GrahamScan;
+
+public class Framework extends JPanel {
+    private ArrayList<Point> points = new ArrayList<>();
+    private ArrayList<Point> hullPoints = new ArrayList<>();
+    private Point selectedPoint;
+    private ArrayList<Edge> triangulationEdges = new ArrayList<>();
+    private KdTree kdtree;
+    private ArrayList<LineSegment> voronoiEdges = new ArrayList<>();
+
+    // Where each point instance sits in the list and in the live structures below
+    private static final class Tracked {
+        int index;
+        int hullId;
+        int delaunayId;
+        int gridId;
+    }
+    private final IdentityHashMap<Point, Tracked> tracked = new IdentityHashMap<>();
+
+    // Hull maintained on every edit so the displayed hull never needs a full recomputation
+    private final DynamicConvexHull liveHull = new DynamicConvexHull();
+    private final ArrayList<Point> pointsByHullId = new ArrayList<>();
+
+    // Delaunay triangulation updated locally on every edit, shown by "Delaunay Triangulation"
+    private final DynamicDelaunay liveDelaunay = new DynamicDelaunay();
+    private final ArrayList<Point> pointsByDelaunayId = new ArrayList<>();
+    private final IntList delaunayScratch = new IntList();
+    private boolean showDelaunay = false;
+
+    // Grid over all points for mouse picking, so a click only looks at nearby cells
+    private static final int PICK_RADIUS = 10;
+    private final SpatialHashGrid pickGrid = new SpatialHashGrid(2 * PICK_RADIUS);
+    private final ArrayList<Point> pointsByGridId = new ArrayList<>();
+
+    // Offscreen layers, drawn bottom to top. Edits only redraw the region they touch.
+    private final RenderLayer pointsLayer = new RenderLayer(this::drawPoints);
+    private final RenderLayer hullLayer = new RenderLayer(this::drawConvexHull);
+    private final RenderLayer triangulationLayer = new RenderLayer(this::drawTriangulationEdges);
+    private final RenderLayer kdTreeLayer = new RenderLayer(this::drawKDTree);
+    private final RenderLayer voronoiLayer = new RenderLayer(this::drawVoronoi);
+
+    // Whole-set algorithms run here, off the event dispatch thread, on snapshots
+    private final ComputeScheduler scheduler = new ComputeScheduler();
+
+    // The points as a background job sees them: the instances (for mapping results back)
+    // and a copy of their coordinates, which drags would otherwise change underneath it
+    private static final class Snapshot {
+        final ArrayList<Point> points;
+        final PointSet coordinates;
+        final int width;
+        final int height;
+        final long version;
+
+        Snapshot(ArrayList<Point> points, int width, int height, long version) {
+            this.points = points;
+            this.coordinates = AwtPoints.toPointSet(points);
+            this.width = width;
+            this.height = height;
+            this.version = version;
+        }
+    }
+
+    // Results by points version, so views shown again and shared inputs are not recomputed.
+    // Cached lists are never modified; fields showing them are reassigned instead.
+    private final ComputationCache cache = new ComputationCache(ComputationCache.DEFAULT_MAX_BYTES);
+    private long pointsVersion;
+
+    
+    private boolean showKDTree = false;
+    private boolean showConvexHull = false;
+    private boolean showTriangulation = false;
+
+    
+    private static final int RANDOM_POINT_COUNT = 5;
+    
+    public Framework() {
+        setFocusable(true);
+        setBackground(Color.WHITE);
+        initializeMouseListeners();
+    }
+    
+    
+
+    private void initializeMouseListeners() {
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                handleMousePressed(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                selectedPoint = null; // Reset selected point
+            }
+        });
+
+        addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                Tracked t = selectedPoint != null ? tracked.get(selectedPoint) : null;
+                if (t != null) {
+                    Rectangle region = editRegion(selectedPoint);
+                    selectedPoint.setLocation(e.getPoint());
+                    liveHull.move(t.hullId, selectedPoint.x, selectedPoint.y);
+                    liveDelaunay.move(t.delaunayId, selectedPoint.x, selectedPoint.y);
+                    pickGrid.move(t.gridId, selectedPoint.x, selectedPoint.y);
+                    refreshHull();
+                    region.add(editRegion(selectedPoint));
+                    kdTreeLayer.invalidate();  // tree lines follow the moved point
+                    pointsChanged();
+                    repaintRegion(region);
+                }
+            }
+        });
+    }
+
+    private void handleMousePressed(MouseEvent e) {
+        Point clickedPoint = e.getPoint();
+        selectedPoint = findNearestPoint(clickedPoint, PICK_RADIUS);
+        
+        if (SwingUtilities.isRightMouseButton(e)) {
+            if (selectedPoint != null) {
+                removePoint(selectedPoint);
+                selectedPoint = null;  // nothing left to drag
+            }
+        } else if (SwingUtilities.isLeftMouseButton(e)) {
+            if (selectedPoint == null) {
+                addPoint(e.getPoint());
+            }
+        }
+    }
+
+    public void addPoint(Point point) {
+        trackPoint(point);
+        refreshHull();
+        pointsChanged();
+        repaintRegion(editRegion(point));
+    }
+    
+    public void removePoint(Point point) {
+        // Remove this exact instance; an equal point elsewhere in the list stays
+        Tracked t = tracked.get(point);
+        if (t != null) {
+            Rectangle region = editRegion(point);
+            tracked.remove(point);
+            // The last point takes over the freed slot, so nothing is shifted
+            Point last = points.remove(points.size() - 1);
+            if (last != point) {
+                points.set(t.index, last);
+                tracked.get(last).index = t.index;
+            }
+            liveHull.remove(t.hullId);
+            liveDelaunay.remove(t.delaunayId);
+            pickGrid.remove(t.gridId);
+            pointsByHullId.set(t.hullId, null);
+            pointsByDelaunayId.set(t.delaunayId, null);
+            pointsByGridId.set(t.gridId, null);
+            refreshHull();
+            pointsChanged();
+            repaintRegion(region);
+        }
+    }
+
+    // Appends the point to the list and registers it with every live structure
+    private void trackPoint(Point point) {
+        Tracked t = new Tracked();
+        t.index = points.size();
+        points.add(point);
+        t.hullId = liveHull.insert(point.x, point.y);
+        setById(pointsByHullId, t.hullId, point);
+        t.delaunayId = liveDelaunay.insert(point.x, point.y);
+        setById(pointsByDelaunayId, t.delaunayId, point);
+        t.gridId = pickGrid.insert(point.x, point.y);
+        setById(pointsByGridId, t.gridId, point);
+        tracked.put(point, t);
+    }
+
+    private static void setById(ArrayList<Point> byId, int id, Point point) {
+        while (byId.size() <= id) {
+            byId.add(null);
+        }
+        byId.set(id, point);
+    }
+
+    // Area whose drawing can change when p is added, removed or moved: its dot and the
+    // polygons spanned by its hull and triangulation neighbours, which contain every
+    // edge a local update of the hull or the triangulation creates or deletes
+    private Rectangle editRegion(Point p) {
+        Rectangle region = new Rectangle(p.x - 5, p.y - 5, 10, 10);
+        Tracked t = tracked.get(p);
+        if (t == null) {
+            return region;  // no longer on the canvas
+        }
+        int h = hullPoints.size();
+        for (int i = 0; i < h; i++) {
+            if (hullPoints.get(i) == p) {
+                region.add(hullPoints.get((i + h - 1) % h));
+                region.add(hullPoints.get((i + 1) % h));
+            }
+        }
+        if (showDelaunay) {
+            delaunayScratch.clear();
+            liveDelaunay.neighbors(t.delaunayId, delaunayScratch);
+            for (int i = 0; i < delaunayScratch.size(); i++) {
+                region.add(pointsByDelaunayId.get(delaunayScratch.get(i)));
+            }
+        } else {
+            for (Edge edge : triangulationEdges) {
+                if (edge.start == p && edge.end != null) {
+                    region.add(edge.end);
+                } else if (edge.end == p && edge.start != null) {
+                    region.add(edge.start);
+                }
+            }
+        }
+        region.grow(2, 2);
+        return region;
+    }
+
+    private void repaintRegion(Rectangle region) {
+        pointsLayer.invalidate(region);
+        hullLayer.invalidate(region);
+        triangulationLayer.invalidate(region);
+        if (showKDTree) {
+            repaint();
+        } else {
+            repaint(region);
+        }
+    }
+
+    // Full redraw of every layer, after a result was recomputed as a whole
+    private void invalidateLayers() {
+        pointsLayer.invalidate();
+        hullLayer.invalidate();
+        triangulationLayer.invalidate();
+        kdTreeLayer.invalidate();
+        voronoiLayer.invalidate();
+    }
+
+    // Keeps a displayed hull in sync with the live structure, O(h) per edit
+    private void refreshHull() {
+        if (!showConvexHull) {
+            return;
+        }
+        int[] hull = liveHull.hull();
+        hullPoints = new ArrayList<>(hull.length);
+        for (int id : hull) {
+            hullPoints.add(pointsByHullId.get(id));
+        }
+    }
+    
+
+    public void clearScene() {
+        scheduler.cancelAll();
+        pointsChanged();
+        cache.clear();
+        points.clear();
+        tracked.clear();
+        hullPoints = new ArrayList<>();
+        liveHull.clear();
+        pointsByHullId.clear();
+        liveDelaunay.clear();
+        pointsByDelaunayId.clear();
+        pickGrid.clear();
+        pointsByGridId.clear();
+        triangulationEdges = new ArrayList<>();
+        voronoiEdges = new ArrayList<>();
+        kdtree = null;
+        showKDTree = false;
+        showConvexHull = false;
+        showTriangulation = false;
+        showDelaunay = false;
+        invalidateLayers();
+        repaint();
+    }
+    
+    private Snapshot snapshot() {
+        return new Snapshot(new ArrayList<>(points), getWidth(), getHeight(), pointsVersion);
+    }
+
+    // Every edit goes through here: results computed before it no longer apply
+    private void pointsChanged() {
+        pointsVersion++;
+        scheduler.pointsChanged();
+    }
+
+    // Delivers the cached result for the current points right away, otherwise computes it
+    // in the background as the scheduler job jobKey and caches it under cacheKey
+    private <R> void submitCached(String jobKey, String cacheKey, ComputeScheduler.Job<Snapshot, R> job,
+                                  ToLongFunction<R> size, Consumer<R> onResult) {
+        R cached = cache.get(cacheKey, pointsVersion);
+        if (cached != null) {
+            scheduler.cancel(jobKey);  // an older request must not overwrite it later
+            onResult.accept(cached);
+            return;
+        }
+        scheduler.submit(jobKey, this::snapshot, (snapshot, progress) -> cache.computeIfAbsent(
+                cacheKey, snapshot.version, () -> job.compute(snapshot, progress), size), onResult);
+    }
+
+    // Delaunay triangulation of a snapshot, shared by the computations built on it
+    private DelaunayTriangulation delaunay(Snapshot snapshot) {
+        return cache.computeIfAbsent("Delaunay", snapshot.version, () -> {
+            DelaunayTriangulation delaunay = new DelaunayTriangulation(snapshot.coordinates);
+            delaunay.performTriangulation();
+            return delaunay;
+        }, delaunay -> 8L * delaunay.getEdgeIndices().length + 56L * delaunay.getMesh().triangleCount());
+    }
+
+    public void generateKDTree() {
+        if (points.size() > 1) {
+            submitCached("k-d tree", "k-d tree", (snapshot, progress) -> new KdTree(snapshot.coordinates),
+                    tree -> 64L * tree.getPoints().size(),
+                    tree -> {
+                        kdtree = tree;
+                        invalidateLayers();
+                        repaint();
+                    });
+        }
+    }
+
+    public void calculateConvexHull() {
+        submitHull("gift wrapping", GiftWrapping::findConvexHull);
+    }
+
+    public void calculateConvexHullGrahamScan() {
+        submitHull("Graham scan", GrahamScan::findConvexHull);
+    }
+
+    public void calculateConvexHullChan() {
+        submitHull("Chan", ChansAlgorithm::findConvexHull);
+    }
+
+    // The hull shows up when the job finishes; from then on the live hull keeps it current
+    private void submitHull(String name, Function<PointSet, int[]> algorithm) {
+    	showDelaunay = false;
+    	triangulationEdges = new ArrayList<>();
+        hullPoints = new ArrayList<>();  // nothing stale while the job runs
+        showConvexHull = true;
+        submitCached("convex hull", "convex hull (" + name + ")",
+                (snapshot, progress) -> AwtPoints.select(snapshot.points, algorithm.apply(snapshot.coordinates)),
+                hull -> 16L + 8L * hull.size(),
+                hull -> {
+                    hullPoints = hull;
+                    invalidateLayers();
+                    repaint();
+                });
+        invalidateLayers();
+        repaint();
+    }
+
+    // Closest point within threshold pixels of p, from the cells around p only
+    private Point findNearestPoint(Point p, int threshold) {
+        int id = pickGrid.nearest(p.x, p.y, threshold);
+        return id < 0 ? null : pointsByGridId.get(id);
+    }
+
+    public void calculateTriangulation() {
+        calculateConvexHull(); // Ensure the convex hull is calculated
+        triangulationEdges = new ArrayList<>(); // Clear previous triangulation
+        submitCached("triangulation", "triangulation", (snapshot, progress) -> {
+            int[] pairs = new Triangulation(snapshot.coordinates).triangulateIndices();
+            ArrayList<Edge> edges = new ArrayList<>(pairs.length / 2);
+            for (int i = 0; i < pairs.length; i += 2) {
+                edges.add(new Edge(snapshot.points.get(pairs[i]), snapshot.points.get(pairs[i + 1])));
+            }
+            return edges;
+        }, edges -> 16L + 40L * edges.size(), edges -> {
+            if (!showDelaunay) {
+                triangulationEdges = edges;
+                invalidateLayers();
+                repaint();
+            }
+        });
+        showConvexHull = true;  // Ensure convex hull is displayed
+        showTriangulation = true; // Ensure triangulation is displayed
+        invalidateLayers();
+        repaint();
+    }
+
+    public void performDelaunayTriangulation() {
+        // The live triangulation already follows every edit and is drawn directly
+        showDelaunay = true;
+        triangulationEdges = new ArrayList<>();
+        invalidateLayers();
+        repaint();
+    }
+
+
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int width = getWidth();
+        int height = getHeight();
+        pointsLayer.paint(g, width, height);
+        if (showConvexHull) {
+            hullLayer.paint(g, width, height);
+        }
+
+        if (showTriangulation) {
+            triangulationLayer.paint(g, width, height);
+        }
+
+        if (showKDTree && kdtree != null && kdtree.getRoot() != null) {
+            kdTreeLayer.paint(g, width, height);
+        }
+
+        // Add drawing of Voronoi edges
+        if (voronoiEdges != null && !voronoiEdges.isEmpty()) {
+            voronoiLayer.paint(g, width, height);
+        }
+    }
+
+
+    private void drawTriangulationEdges(Graphics2D g, Rectangle clip) {
+        if (showDelaunay) {
+            g.setColor(Color.RED);
+            delaunayScratch.clear();
+            liveDelaunay.edges(delaunayScratch);
+            for (int i = 0; i < delaunayScratch.size(); i += 2) {
+                Point start = pointsByDelaunayId.get(delaunayScratch.get(i));
+                Point end = pointsByDelaunayId.get(delaunayScratch.get(i + 1));
+                if (crosses(clip, start, end)) {
+                    g.drawLine(start.x, start.y, end.x, end.y);
+                }
+            }
+        } else if (!triangulationEdges.isEmpty()) {
+            g.setColor(Color.RED);  // Postavljamo boju za ivice
+            for (Edge edge : triangulationEdges) {
+                if (edge.start != null && edge.end != null && crosses(clip, edge.start, edge.end)) {
+                    g.drawLine(edge.start.x, edge.start.y, edge.end.x, edge.end.y);  // Crtamo ivicu
+                }
+            }
+        }
+    }
+
+    // Cheap test on the segment's bounding box, the graphics clip does the rest
+    private static boolean crosses(Rectangle clip, Point a, Point b) {
+        return Math.max(a.x, b.x) >= clip.x && Math.min(a.x, b.x) <= clip.x + clip.width
+                && Math.max(a.y, b.y) >= clip.y && Math.min(a.y, b.y) <= clip.y + clip.height;
+    }
+
+
+    private void drawPoints(Graphics2D g, Rectangle clip) {
+        g.setColor(Color.BLACK);
+        if (clip.width >= getWidth() && clip.height >= getHeight()) {
+            for (Point point : points) {
+                g.fillOval(point.x - 4, point.y - 4, 8, 8);
+            }
+            return;
+        }
+        // Only the dots overlapping the clip, found through the picking grid
+        IntList ids = new IntList();
+        double radius = Math.hypot(clip.width, clip.height) / 2 + 6;
+        pickGrid.query(clip.getCenterX(), clip.getCenterY(), radius, ids);
+        for (int i = 0; i < ids.size(); i++) {
+            Point point = pointsByGridId.get(ids.get(i));
+            g.fillOval(point.x - 4, point.y - 4, 8, 8);
+        }
+    }
+
+    private void drawConvexHull(Graphics2D g, Rectangle clip) {
+        g.setColor(Color.RED);
+        for (int i = 0; i < hullPoints.size(); i++) {
+            Point p1 = hullPoints.get(i);
+            Point p2 = hullPoints.get((i + 1) % hullPoints.size());
+            g.drawLine(p1.x, p1.y, p2.x, p2.y);
+        }
+    }
+
+    private void drawKDTree(Graphics2D g, Rectangle clip) {
+        if (kdtree != null) {
+            drawKDTree(g, kdtree.getRoot());
+        }
+    }
+    
+    private void drawKDTree(Graphics g, KdTree.Node node) {
+        if (node == null) return;
+        
+        PointSet treePoints = kdtree.getPoints();  // the canvas points, so the coordinates are whole
+        int x = (int) treePoints.x(node.index), y = (int) treePoints.y(node.index);
+        g.setColor(Color.RED);
+        g.fillOval(x - 4, y - 4, 8, 8); // Draw the point
+
+        if (node.left != null) {
+            g.drawLine(x, y, (int) treePoints.x(node.left.index), (int) treePoints.y(node.left.index));
+            drawKDTree(g, node.left); // Recur for left subtree
+        }
+
+        if (node.right != null) {
+            g.drawLine(x, y, (int) treePoints.x(node.right.index), (int) treePoints.y(node.right.index));
+            drawKDTree(g, node.right); // Recur for right subtree
+        }
+    }
+
+
+    private void generateRandomPoints() {
+        int width = getWidth();
+        int height = getHeight();
+        java.util.Random random = new java.util.Random();
+
+        for (int i = 0; i < RANDOM_POINT_COUNT; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            Point point = new Point(x, y);
+            trackPoint(point);
+        }
+        refreshHull();
+        pointsChanged();
+        invalidateLayers();
+        repaint(); 
+    }
+
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Computational Geometry Project");
+            Framework visualizer = new Framework();
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setSize(800, 800);
+            frame.add(visualizer);
+            frame.setVisible(true);
+            createMenu(frame, visualizer);
+        });
+    }
+
+    private static void createMenu(JFrame frame, Framework visualizer) {
+        JMenuBar menubar = new JMenuBar();
+        JMenu convexHullMenu = new JMenu("Convex Hull");
+        menubar.add(convexHullMenu);
+        
+        addMenuItem(convexHullMenu, "Gift Wrapping", e -> {
+            visualizer.calculateConvexHull();
+            visualizer.showKDTree = false; 
+            visualizer.showConvexHull = true; 
+            visualizer.showTriangulation = false; 
+        });
+        addMenuItem(convexHullMenu, "Graham Scan", e -> {
+            visualizer.calculateConvexHullGrahamScan();
+            visualizer.showKDTree = false; 
+            visualizer.showConvexHull = true; 
+            visualizer.showTriangulation = false; 
+        });
+        
+        addMenuItem(convexHullMenu, "Chan's Algorithm", e -> {
+            visualizer.calculateConvexHullChan();
+            visualizer.showKDTree = false; 
+            visualizer.showConvexHull = true; 
+            visualizer.showTriangulation = false; 
+        });
+        
+        addMenuItem(menubar, "Triangulation", e -> {
+            visualizer.calculateTriangulation();
+            visualizer.showKDTree = false; // Hide k-d tree
+            visualizer.showConvexHull = true; // Hide convex hull
+            visualizer.showTriangulation = true; // Show triangulation
+        });
+        
+        addMenuItem(menubar, "Generate k-D Tree", e -> {
+            visualizer.generateKDTree();
+            visualizer.showKDTree = true; 
+            visualizer.showConvexHull = false; 
+            visualizer.showTriangulation = false; 
+            visualizer.showDelaunay = false;
+        });
+        
+        addMenuItem(menubar, "Delaunay Triangulation", e -> {
+            visualizer.performDelaunayTriangulation();
+            visualizer.showKDTree = false;
+            visualizer.showConvexHull = false;
+            visualizer.showTriangulation = true; // Make sure triangulation is displayed
+        });
+
+        // Add the new Voronoi Diagram menu item
+        addMenuItem(menubar, "Voronoi Diagram", e -> {
+            visualizer.calculateVoronoi();
+            visualizer.showKDTree = false;
+            visualizer.showConvexHull = false;
+            visualizer.showTriangulation = false; // Hide triangulation
+            visualizer.showDelaunay = false;
+        });
+
+        JButton randomPointsButton = new JButton("Random dots");
+        randomPointsButton.addActionListener(e -> visualizer.generateRandomPoints());
+        JButton clearButton = new JButton("Clear Scene");
+        clearButton.addActionListener(e -> visualizer.clearScene());
+
+        // Shown while a background computation runs
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        visualizer.scheduler.setProgressListener((job, fraction) -> {
+            progressBar.setVisible(job != null);
+            if (job != null) {
+                progressBar.setString(job);
+                progressBar.setValue((int) Math.round(fraction * 100));
+            }
+        });
+
+        JPanel controlPanel = new JPanel();
+        controlPanel.add(randomPointsButton);
+        controlPanel.add(clearButton);
+        controlPanel.add(progressBar);
+
+        frame.setJMenuBar(menubar);
+        frame.add(controlPanel, BorderLayout.SOUTH);
+    }
+
+
+
+
+    public void calculateVoronoi() {
+        // Clipped to the visible panel so rays become segments, hence keyed by its size
+        String key = "Voronoi diagram " + getWidth() + "x" + getHeight();
+        submitCached("Voronoi diagram", key, (snapshot, progress) -> {
+            // Dual of the Delaunay triangulation, taken from the cache when it exists
+            DelaunayTriangulation delaunay = delaunay(snapshot);
+            progress.report(0.6);
+
+            BoundingBox panel = new BoundingBox(0, 0, snapshot.width, snapshot.height);
+            VoronoiDiagram voronoi = new VoronoiDiagram(delaunay, panel);
+            return new ArrayList<>(voronoi.getEdges());
+        }, edges -> 16L + 64L * edges.size(), edges -> {
+            voronoiEdges = edges;
+            voronoiLayer.invalidate();
+
+            // Now update the visualizer to show the Voronoi diagram
+            repaint();
+        });
+    }
+
+
+
+     private void drawVoronoi(Graphics2D g, Rectangle clip) {
+    	    if (voronoiEdges != null && !voronoiEdges.isEmpty()) {
+    	        g.setColor(Color.GREEN);  // Use green for Voronoi edges
+    	        for (LineSegment segment : voronoiEdges) {
+    	            g.drawLine((int) Math.round(segment.x1), (int) Math.round(segment.y1),
+    	                       (int) Math.round(segment.x2), (int) Math.round(segment.y2));
+    	        }
+    	    }
+    	}
+
+
+
+
+	private static void addMenuItem(JMenu menu, String title, ActionListener listener) {
+        JMenuItem menuItem = new JMenuItem(title);
+        menuItem.addActionListener(listener);
+        menu.add(menuItem);
+    }
+
+    private static void addMenuItem(JMenuBar menubar, String title, ActionListener listener) {
+        JMenuItem menuItem = new JMenuItem(title);
+        menuItem.addActionListener(listener);
+        menubar.add(menuItem);
+    }
+}
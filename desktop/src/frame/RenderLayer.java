@@ -0,0 +1,77 @@
+package frame;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// One layer of the panel drawn into a transparent offscreen image. The image is kept
+// between repaints: invalidate() redraws it completely on the next paint, while
+// invalidate(region) only clears and redraws the given area, clipped, so a local edit
+// costs as much as the elements around it.
+final class RenderLayer {
+
+    interface Painter {
+        // Draws the layer's elements; elements entirely outside clip may be skipped
+        void paint(Graphics2D g, Rectangle clip);
+    }
+
+    private final Painter painter;
+    private BufferedImage image;
+    private boolean valid;
+    private Rectangle dirty;
+
+    RenderLayer(Painter painter) {
+        this.painter = painter;
+    }
+
+    void invalidate() {
+        valid = false;
+        dirty = null;
+    }
+
+    void invalidate(Rectangle region) {
+        if (!valid) {
+            return;
+        }
+        dirty = dirty == null ? new Rectangle(region) : dirty.union(region);
+    }
+
+    // Brings the image up to date and draws it at the panel origin
+    void paint(Graphics g, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            valid = false;
+        }
+        Rectangle bounds = new Rectangle(0, 0, width, height);
+        if (!valid) {
+            render(bounds);
+            valid = true;
+            dirty = null;
+        } else if (dirty != null) {
+            Rectangle region = dirty.intersection(bounds);
+            dirty = null;
+            if (!region.isEmpty()) {
+                render(region);
+            }
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    private void render(Rectangle region) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setClip(region);
+            g.setComposite(AlphaComposite.Clear);
+            g.fill(region);
+            g.setComposite(AlphaComposite.SrcOver);
+            painter.paint(g, region);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package frame;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import voronoi.VoronoiDiagram;
+
+// Draws a VoronoiDiagram with AWT: edges in red, rays continued past the visible
+// area, and the Voronoi vertices in blue.
+public final class VoronoiPainter {
+
+    private VoronoiPainter() {
+    }
+
+    public static void paint(VoronoiDiagram voronoi, Graphics g) {
+        g.setColor(Color.RED);
+        Rectangle bounds = g.getClipBounds();
+        double reach = bounds != null ? bounds.width + bounds.height : 10_000;
+        for (int i = 0; i < voronoi.edgeCount(); i++) {
+            double x1 = voronoi.x1(i), y1 = voronoi.y1(i);
+            double ex = voronoi.x2(i), ey = voronoi.y2(i);
+            if (voronoi.isRay(i)) {
+                // Draw rays far enough to leave the visible area
+                ex = x1 + (ex - x1) * reach;
+                ey = y1 + (ey - y1) * reach;
+            }
+            g.drawLine((int) Math.round(x1), (int) Math.round(y1), (int) Math.round(ex), (int) Math.round(ey));
+        }
+
+        g.setColor(Color.BLUE);
+        for (int t = 0; t < voronoi.getMesh().triangleCount(); t++) {
+            g.fillOval((int) Math.round(voronoi.circumcenterX(t)) - 3, (int) Math.round(voronoi.circumcenterY(t)) - 3, 6, 6);
+        }
+    }
+}
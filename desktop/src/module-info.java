@@ -0,0 +1,5 @@
+// The Swing visualizer and the java.awt.Point adapters it works through
+module Geometry.desktop {
+    requires Geometry;
+    requires java.desktop;
+}
@@ -0,0 +1,284 @@
+package convex_hull;
+
+import geometry.PointSet;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// Akl-Toussaint heuristic: the points extreme in x, y, x + y and x - y span an
+// octagon inside the hull, so points strictly inside it can be dropped before the
+// hull algorithm runs. On uniform or clustered input this removes nearly all points
+// in one sequential pass over the coordinate arrays. Large inputs are split into
+// ranges on a fork-join pool (the common pool unless one is given) for both the
+// extreme-point and the filter pass.
+//
+// The filter keeps every point that is on or outside the octagon, including the
+// duplicates of hull vertices, so the hull algorithms produce the same output with
+// or without it. It is on by default; -Dgeometry.hull.prefilter=false or
+// setEnabled(false) turns it off.
+public final class AklToussaintFilter {
+    public static final int MIN_POINTS = 64;              // below this filtering does not pay off
+    public static final int PARALLEL_THRESHOLD = 1 << 17;  // points per range handed to the pool
+
+    private static volatile boolean enabled = !"false".equals(System.getProperty("geometry.hull.prefilter"));
+    private static final LongAdder inputPoints = new LongAdder();
+    private static final LongAdder droppedPoints = new LongAdder();
+
+    private AklToussaintFilter() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    // Points seen and dropped by all filter calls since the last reset
+    public static long inputPoints() {
+        return inputPoints.sum();
+    }
+
+    public static long droppedPoints() {
+        return droppedPoints.sum();
+    }
+
+    public static void resetCounters() {
+        inputPoints.reset();
+        droppedPoints.reset();
+    }
+
+    // Ascending indices of the points that may be hull vertices; all indices when the
+    // filter is off, the input is small or the octagon is degenerate.
+    public static int[] filter(PointSet points) {
+        return filter(points, ForkJoinPool.commonPool());
+    }
+
+    // Large inputs are filtered on pool, or on the calling thread when pool is null
+    @SuppressWarnings("try")
+    public static int[] filter(PointSet points, ForkJoinPool pool) {
+        int n = points.size();
+        if (!enabled || n < MIN_POINTS) {
+            return allIndices(n);
+        }
+        double[] xs = points.xArray();
+        double[] ys = points.yArray();
+        int[] survivors;
+        try (Trace.Scope scope = Trace.begin("AklToussaintFilter.filter")) {
+            int[] extremes = extremes(xs, ys, n, pool);
+            int[] octagon = octagon(xs, ys, extremes);
+            if (octagon.length < 3) {
+                survivors = allIndices(n);
+            } else {
+                double[] box = innerBox(xs, ys, extremes, octagon);
+                if (pool == null || n < 2 * PARALLEL_THRESHOLD) {
+                    survivors = outside(xs, ys, octagon, box, 0, n);
+                } else {
+                    survivors = pool.invoke(new FilterTask(xs, ys, octagon, box, 0, n));
+                }
+            }
+        }
+        inputPoints.add(n);
+        droppedPoints.add(n - survivors.length);
+        if (Trace.ENABLED) Trace.event("AklToussaintFilter", "kept " + survivors.length + " of " + n + " points");
+        return survivors;
+    }
+
+    // Indices of min x, min(x + y), min y, max(x - y), max x, max(x + y), max y, min(x - y)
+    private static int[] extremes(double[] xs, double[] ys, int n, ForkJoinPool pool) {
+        if (pool == null || n < 2 * PARALLEL_THRESHOLD) {
+            return extremes(xs, ys, 0, n);
+        }
+        return pool.invoke(new ExtremesTask(xs, ys, 0, n));
+    }
+
+    private static int[] extremes(double[] xs, double[] ys, int from, int to) {
+        int[] best = new int[8];
+        Arrays.fill(best, from);
+        for (int i = from + 1; i < to; i++) {
+            update(xs, ys, best, i);
+        }
+        return best;
+    }
+
+    private static void update(double[] xs, double[] ys, int[] best, int i) {
+        double x = xs[i];
+        double y = ys[i];
+        if (x < xs[best[0]]) best[0] = i;
+        if (x + y < xs[best[1]] + ys[best[1]]) best[1] = i;
+        if (y < ys[best[2]]) best[2] = i;
+        if (x - y > xs[best[3]] - ys[best[3]]) best[3] = i;
+        if (x > xs[best[4]]) best[4] = i;
+        if (x + y > xs[best[5]] + ys[best[5]]) best[5] = i;
+        if (y > ys[best[6]]) best[6] = i;
+        if (x - y < xs[best[7]] - ys[best[7]]) best[7] = i;
+    }
+
+    // The extremes in counter-clockwise order without repeated positions
+    private static int[] octagon(double[] xs, double[] ys, int[] extremes) {
+        int[] polygon = new int[8];
+        int size = 0;
+        for (int p : extremes) {
+            if (size > 0 && samePoint(xs, ys, polygon[size - 1], p)) continue;
+            polygon[size++] = p;
+        }
+        while (size > 1 && samePoint(xs, ys, polygon[size - 1], polygon[0])) {
+            size--;
+        }
+        return Arrays.copyOf(polygon, size);
+    }
+
+    // Axis-parallel box spanned by the four diagonal extremes, {minX, minY, maxX, maxY}.
+    // Used only if its corners are checked to lie in the octagon, then a point strictly
+    // inside the box is strictly inside the octagon without any orientation test.
+    private static double[] innerBox(double[] xs, double[] ys, int[] extremes, int[] octagon) {
+        int sw = extremes[1], se = extremes[3], ne = extremes[5], nw = extremes[7];
+        double minX = Math.max(xs[sw], xs[nw]);
+        double maxX = Math.min(xs[se], xs[ne]);
+        double minY = Math.max(ys[sw], ys[se]);
+        double maxY = Math.min(ys[ne], ys[nw]);
+        if (!(minX < maxX && minY < maxY)) {
+            return null;
+        }
+        double[] cornersX = {minX, maxX, maxX, minX};
+        double[] cornersY = {minY, minY, maxY, maxY};
+        int m = octagon.length;
+        for (int c = 0; c < 4; c++) {
+            for (int k = 0, j = m - 1; k < m; j = k++) {
+                if (Predicates.orient2d(xs[octagon[j]], ys[octagon[j]], xs[octagon[k]], ys[octagon[k]],
+                        cornersX[c], cornersY[c]) < 0) {
+                    return null;
+                }
+            }
+        }
+        return new double[] {minX, minY, maxX, maxY};
+    }
+
+    // Points on or outside the octagon, in index order
+    private static int[] outside(double[] xs, double[] ys, int[] octagon, double[] box, int from, int to) {
+        int[] kept = new int[64];
+        int size = 0;
+        int m = octagon.length;
+        boolean hasBox = box != null;
+        double minX = hasBox ? box[0] : 0, minY = hasBox ? box[1] : 0;
+        double maxX = hasBox ? box[2] : 0, maxY = hasBox ? box[3] : 0;
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            if (hasBox && x > minX && x < maxX && y > minY && y < maxY) {
+                continue;
+            }
+            boolean inside = true;
+            for (int k = 0, j = m - 1; k < m; j = k++) {
+                if (MonotoneChain.orientation(xs, ys, octagon[j], octagon[k], i) <= 0) {
+                    inside = false;
+                    break;
+                }
+            }
+            if (!inside) {
+                if (size == kept.length) {
+                    kept = Arrays.copyOf(kept, size * 2);
+                }
+                kept[size++] = i;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    private static int[] allIndices(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static boolean samePoint(double[] xs, double[] ys, int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    private static final class ExtremesTask extends RecursiveTask<int[]> {
+        private final double[] xs;
+        private final double[] ys;
+        private final int from;
+        private final int to;
+        private final Trace.Scope scope = Trace.current();  // of the thread creating the task
+
+        ExtremesTask(double[] xs, double[] ys, int from, int to) {
+            this.xs = xs;
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected int[] compute() {
+            try (Trace.Scope attached = Trace.attach(scope)) {
+                return extremes();
+            }
+        }
+
+        private int[] extremes() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return AklToussaintFilter.extremes(xs, ys, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ExtremesTask left = new ExtremesTask(xs, ys, from, mid);
+            left.fork();
+            int[] best = new ExtremesTask(xs, ys, mid, to).compute();
+            int[] leftBest = left.join();
+            // Candidates from the left half have lower indices and win ties
+            int[] merged = leftBest.clone();
+            for (int candidate : best) {
+                update(xs, ys, merged, candidate);
+            }
+            return merged;
+        }
+    }
+
+    private static final class FilterTask extends RecursiveTask<int[]> {
+        private final double[] xs;
+        private final double[] ys;
+        private final int[] octagon;
+        private final double[] box;
+        private final int from;
+        private final int to;
+        private final Trace.Scope scope = Trace.current();  // of the thread creating the task
+
+        FilterTask(double[] xs, double[] ys, int[] octagon, double[] box, int from, int to) {
+            this.xs = xs;
+            this.ys = ys;
+            this.octagon = octagon;
+            this.box = box;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected int[] compute() {
+            try (Trace.Scope attached = Trace.attach(scope)) {
+                return outside();
+            }
+        }
+
+        private int[] outside() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return AklToussaintFilter.outside(xs, ys, octagon, box, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(xs, ys, octagon, box, from, mid);
+            left.fork();
+            int[] rightKept = new FilterTask(xs, ys, octagon, box, mid, to).compute();
+            int[] leftKept = left.join();
+            int[] kept = Arrays.copyOf(leftKept, leftKept.length + rightKept.length);
+            System.arraycopy(rightKept, 0, kept, leftKept.length, rightKept.length);
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package convex_hull;
+
+import geometry.PointSet;
+import geometry.Trace;
+import java.util.Arrays;
+
+// Chan's output-sensitive hull in O(n log h). For m = 4, 16, 256, ... the points are
+// split into groups of m, each group gets its hull from the monotone chain, and a
+// gift wrapping pass over the groups takes at most m steps. Every step finds the
+// tangent from the current vertex to each group hull by binary search, so a pass
+// costs O(n log m + h (n / m) log m), and the first m >= h finishes.
+//
+// The output is the same as GrahamScan.findConvexHull: counter-clockwise from the
+// smallest x (then y), no collinear vertices, duplicates collapsed to their lowest
+// index.
+public class ChansAlgorithm {
+
+    private ChansAlgorithm() {
+    }
+
+    @SuppressWarnings("try")
+    public static int[] findConvexHull(PointSet points) {
+        try (Trace.Scope scope = Trace.begin("ChansAlgorithm.findConvexHull")) {
+            double[] xs = points.xArray();
+            double[] ys = points.yArray();
+            int[] candidates = AklToussaintFilter.filter(points);
+            int n = candidates.length;
+            if (n == 0) {
+                return new int[0];
+            }
+            for (int t = 1; ; t++) {
+                int m = t >= 5 ? n : (int) Math.min(n, 1L << (1 << t));
+                int[] hull = wrap(xs, ys, candidates, m);
+                if (hull != null) {
+                    return hull;
+                }
+            }
+        }
+    }
+
+    // Gift wrapping over group hulls of m points; null if the hull has more than m vertices
+    private static int[] wrap(double[] xs, double[] ys, int[] candidates, int m) {
+        int n = candidates.length;
+        int groupCount = (n + m - 1) / m;
+        int[][] groups = new int[groupCount][];
+        for (int g = 0; g < groupCount; g++) {
+            int[] indices = Arrays.copyOfRange(candidates, g * m, Math.min(n, (g + 1) * m));
+            groups[g] = MonotoneChain.hull(xs, ys, indices, indices.length);
+        }
+        if (groupCount == 1) {
+            return groups[0];  // a single group hull is the answer
+        }
+
+        // Every group hull starts at its smallest (x, y), lowest index among duplicates
+        int start = groups[0][0];
+        for (int[] group : groups) {
+            int p = group[0];
+            if (xs[p] < xs[start] || (xs[p] == xs[start] && (ys[p] < ys[start] || (ys[p] == ys[start] && p < start)))) {
+                start = p;
+            }
+        }
+
+        int[] hull = new int[m];
+        int size = 0;
+        int current = start;
+        do {
+            if (size == m) {
+                return null;
+            }
+            hull[size++] = current;
+            int next = -1;
+            for (int[] group : groups) {
+                int candidate = tangent(xs, ys, group, current);
+                if (candidate < 0) continue;
+                if (next < 0) {
+                    next = candidate;
+                    continue;
+                }
+                double turn = MonotoneChain.orientation(xs, ys, current, next, candidate);
+                if (turn < 0 || (turn == 0 && farther(xs, ys, current, next, candidate))) {
+                    next = candidate;
+                } else if (turn == 0 && samePoint(xs, ys, next, candidate) && candidate < next) {
+                    next = candidate;
+                }
+            }
+            if (next < 0) {
+                break;  // all points coincide
+            }
+            current = next;
+        } while (!samePoint(xs, ys, current, start));
+        return Arrays.copyOf(hull, size);
+    }
+
+    // Vertex q of a counter-clockwise group hull with the whole group on or left of
+    // p -> q, the farther one when two are collinear with p; -1 if the group only
+    // holds p's position.
+    //
+    // With s(i) = "edge i -> i+1 turns counter-clockwise around p", the edges split
+    // into one run where s holds and one where it does not, and q starts the first.
+    // Whether a vertex lies before or after q follows from s and from its side of the
+    // line through p and vertex 0.
+    static int tangent(double[] xs, double[] ys, int[] hull, int p) {
+        int k = hull.length;
+        if (k <= 2) {
+            int best = -1;
+            for (int q : hull) {
+                if (samePoint(xs, ys, q, p)) continue;
+                if (best < 0 || MonotoneChain.orientation(xs, ys, p, best, q) < 0
+                        || (MonotoneChain.orientation(xs, ys, p, best, q) == 0 && farther(xs, ys, p, best, q))) {
+                    best = q;
+                }
+            }
+            return best;
+        }
+
+        int result;
+        if (turnsCounterClockwise(xs, ys, hull, p, 0)) {
+            // Search [1, k]; k stands for vertex 0
+            int lo = 1;
+            int hi = k;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (turnsCounterClockwise(xs, ys, hull, p, mid)
+                        && MonotoneChain.orientation(xs, ys, p, hull[0], hull[mid]) < 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            result = lo % k;
+        } else {
+            // q lies in [1, k - 1]; the last vertex is never evaluated
+            int lo = 1;
+            int hi = k - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (turnsCounterClockwise(xs, ys, hull, p, mid)
+                        || MonotoneChain.orientation(xs, ys, p, hull[0], hull[mid]) > 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            result = lo;
+        }
+
+        if (isTangent(xs, ys, hull, p, result)) {
+            return hull[result];
+        }
+        // Not reached for exact predicates; kept as a guard
+        for (int i = 0; i < k; i++) {
+            if (isTangent(xs, ys, hull, p, i)) return hull[i];
+        }
+        return -1;
+    }
+
+    private static boolean turnsCounterClockwise(double[] xs, double[] ys, int[] hull, int p, int i) {
+        return MonotoneChain.orientation(xs, ys, p, hull[i], hull[(i + 1) % hull.length]) > 0;
+    }
+
+    private static boolean isTangent(double[] xs, double[] ys, int[] hull, int p, int i) {
+        int k = hull.length;
+        int q = hull[i];
+        return !samePoint(xs, ys, q, p)
+                && MonotoneChain.orientation(xs, ys, p, q, hull[(i + 1) % k]) > 0
+                && MonotoneChain.orientation(xs, ys, p, hull[(i + k - 1) % k], q) <= 0;
+    }
+
+    // For b collinear with p -> a on the same side of p: true if b lies beyond a
+    private static boolean farther(double[] xs, double[] ys, int p, int a, int b) {
+        if (xs[a] != xs[p]) {
+            return xs[a] > xs[p] ? xs[b] > xs[a] : xs[b] < xs[a];
+        }
+        return ys[a] > ys[p] ? ys[b] > ys[a] : ys[b] < ys[a];
+    }
+
+    private static boolean samePoint(double[] xs, double[] ys, int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+}
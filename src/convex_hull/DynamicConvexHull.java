@@ -0,0 +1,214 @@
+package convex_hull;
+
+import geometry.IntList;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Convex hull that follows insertions, removals and moves of individual points.
+//
+// The lower and upper chains are kept as balanced trees of point ids ordered by
+// (x, y, id). An insertion only touches the neighbours of the new point on each
+// chain, so it costs O(log n) amortized. Removing a point that is not a chain vertex
+// costs O(log n) as well. Removing a chain vertex recomputes the chain between its
+// two chain neighbours, which costs O(k) in the number of points in that x-slab
+// (both neighbours stay hull vertices when a point disappears).
+//
+// hull() lists the vertices counter-clockwise from the smallest x (then y) without
+// collinear vertices, the same order as GrahamScan.findConvexHull.
+public class DynamicConvexHull {
+    private static final int LOWER = 1;
+    private static final int UPPER = -1;
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private boolean[] alive = new boolean[16];
+    private int idCount;
+    private final IntList freeIds = new IntList();
+
+    private final Comparator<Integer> order = (a, b) -> {
+        int c = Double.compare(xs[a], xs[b]);
+        if (c == 0) c = Double.compare(ys[a], ys[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    };
+    private final TreeSet<Integer> all = new TreeSet<>(order);
+    private final TreeSet<Integer> lower = new TreeSet<>(order);
+    private final TreeSet<Integer> upper = new TreeSet<>(order);
+
+    public DynamicConvexHull() {
+    }
+
+    public int insert(double x, double y) {
+        int id;
+        if (!freeIds.isEmpty()) {
+            id = freeIds.removeLast();
+        } else {
+            if (idCount == xs.length) {
+                xs = Arrays.copyOf(xs, idCount * 2);
+                ys = Arrays.copyOf(ys, idCount * 2);
+                alive = Arrays.copyOf(alive, idCount * 2);
+            }
+            id = idCount++;
+        }
+        place(id, x, y);
+        return id;
+    }
+
+    public void remove(int id) {
+        checkAlive(id);
+        displace(id);
+        freeIds.add(id);
+    }
+
+    // Moves a point while keeping its id
+    public void move(int id, double x, double y) {
+        checkAlive(id);
+        displace(id);
+        place(id, x, y);
+    }
+
+    public double x(int id) {
+        return xs[id];
+    }
+
+    public double y(int id) {
+        return ys[id];
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    public void clear() {
+        all.clear();
+        lower.clear();
+        upper.clear();
+        freeIds.clear();
+        Arrays.fill(alive, false);
+        idCount = 0;
+    }
+
+    // Hull vertex ids, counter-clockwise from the smallest x (then y)
+    public int[] hull() {
+        int[] result = new int[lower.size() + upper.size()];
+        int size = 0;
+        for (int id : lower) {
+            result[size++] = id;
+        }
+        // Upper chain backwards, without the two extreme points it shares with the lower chain
+        Iterator<Integer> it = upper.descendingIterator();
+        if (it.hasNext()) it.next();
+        while (it.hasNext()) {
+            int id = it.next();
+            if (!it.hasNext()) break;
+            result[size++] = id;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void place(int id, double x, double y) {
+        xs[id] = x;
+        ys[id] = y;
+        alive[id] = true;
+        all.add(id);
+        insertIntoChain(lower, id, LOWER);
+        insertIntoChain(upper, id, UPPER);
+    }
+
+    private void displace(int id) {
+        all.remove(id);
+        removeFromChain(lower, id, LOWER);
+        removeFromChain(upper, id, UPPER);
+        alive[id] = false;
+    }
+
+    // sign * orientation > 0 means a strictly convex turn for that chain
+    private void insertIntoChain(TreeSet<Integer> chain, int id, int sign) {
+        Integer pred = chain.lower(id);
+        Integer succ = chain.higher(id);
+        if (samePoint(pred, id) || samePoint(succ, id)) {
+            return;  // a duplicate already represents this position
+        }
+        if (pred != null && succ != null && sign * orientation(pred, succ, id) >= 0) {
+            return;  // on or inside the chain
+        }
+        chain.add(id);
+
+        while (pred != null) {
+            Integer before = chain.lower(pred);
+            if (before == null || sign * orientation(before, pred, id) > 0) break;
+            chain.remove(pred);
+            pred = before;
+        }
+        while (succ != null) {
+            Integer after = chain.higher(succ);
+            if (after == null || sign * orientation(id, succ, after) > 0) break;
+            chain.remove(succ);
+            succ = after;
+        }
+    }
+
+    private void removeFromChain(TreeSet<Integer> chain, int id, int sign) {
+        if (!chain.remove(id)) {
+            return;
+        }
+        Integer pred = chain.lower(id);
+        Integer succ = chain.higher(id);
+
+        // Both neighbours stay on the chain, only the part between them changes
+        NavigableSet<Integer> slab;
+        if (pred != null && succ != null) {
+            slab = all.subSet(pred, false, succ, false);
+        } else if (pred != null) {
+            slab = all.tailSet(pred, false);
+        } else if (succ != null) {
+            slab = all.headSet(succ, false);
+        } else {
+            slab = all;
+        }
+
+        // Monotone chain over pred, the slab and succ
+        IntList stack = new IntList();
+        if (pred != null) stack.add(pred);
+        for (int p : slab) {
+            push(stack, p, sign);
+        }
+        if (succ != null) push(stack, succ, sign);
+
+        int from = pred != null ? 1 : 0;
+        int to = succ != null ? stack.size() - 1 : stack.size();
+        for (int i = from; i < to; i++) {
+            chain.add(stack.get(i));
+        }
+    }
+
+    private void push(IntList stack, int p, int sign) {
+        while (stack.size() >= 2 && sign * orientation(stack.get(stack.size() - 2), stack.get(stack.size() - 1), p) <= 0) {
+            stack.removeLast();
+        }
+        // Duplicates of the previous vertex never become chain vertices
+        if (!stack.isEmpty() && samePoint(stack.get(stack.size() - 1), p)) {
+            return;
+        }
+        stack.add(p);
+    }
+
+    private boolean samePoint(Integer a, int b) {
+        return a != null && xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    private double orientation(int p, int q, int r) {
+        Trace.orientationTest();
+        return Predicates.orient2d(xs[p], ys[p], xs[q], ys[q], xs[r], ys[r]);
+    }
+
+    private void checkAlive(int id) {
+        if (id < 0 || id >= idCount || !alive[id]) {
+            throw new IllegalArgumentException("Unknown point id " + id);
+        }
+    }
+}
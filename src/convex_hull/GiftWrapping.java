@@ -1,69 +1,77 @@
 package convex_hull;
 
-import java.awt.Point;
-import java.util.ArrayList;
+import geometry.PointSet;
+import geometry.Trace;
+import java.util.Arrays;
 
 public class GiftWrapping {
 
-    public static ArrayList<Point> findConvexHull(ArrayList<Point> points) {
-        if (points.size() < 3) {
-            return points;  // there has to be more that 3 points
-        }
-
-        ArrayList<Point> hull = new ArrayList<>();
-
-        Point start = findLowestPoint(points);
-        Point current = start;
-        Point previous = new Point(current.x - 1, current.y);
-
-        hull.add(start);  
-
-        do {
-            Point next = null;
-            double smallestAngle = Double.MAX_VALUE;
+    private GiftWrapping() {
+    }
 
-            for (Point candidate : points) {
-                if (candidate.equals(current)) {
-                    continue;  
+    // Returns hull vertex indices in counter-clockwise order, starting at the point
+    // with the smallest x (then y). Collinear and duplicate points are skipped.
+    @SuppressWarnings("try")
+    public static int[] findConvexHull(PointSet points) {
+        try (Trace.Scope scope = Trace.begin("GiftWrapping.findConvexHull")) {
+            int[] candidates = AklToussaintFilter.filter(points);
+            int n = candidates.length;
+            if (n == 0) {
+                return new int[0];
+            }
+            double[] xs = points.xArray();
+            double[] ys = points.yArray();
+
+            int start = findLowestPoint(xs, ys, candidates);
+            int[] hull = new int[n];
+            int size = 0;
+            int current = start;
+
+            do {
+                hull[size++] = current;
+                int next = -1;
+
+                for (int candidate : candidates) {
+                    if (xs[candidate] == xs[current] && ys[candidate] == ys[current]) {
+                        continue;
+                    }
+                    if (next < 0) {
+                        next = candidate;
+                        continue;
+                    }
+                    double turn = MonotoneChain.orientation(xs, ys, current, next, candidate);
+                    // Keep the most clockwise candidate, the farthest one when collinear
+                    if (turn < 0 || (turn == 0 && distanceSquared(xs, ys, current, candidate) > distanceSquared(xs, ys, current, next))) {
+                        next = candidate;
+                    }
                 }
 
-                double angle = calculateAngle(previous, current, candidate);
-
-                if (next == null || angle < smallestAngle) {
-                    smallestAngle = angle;
-                    next = candidate;
+                if (next < 0) {
+                    break;  // all points coincide
                 }
-            }
-            
-            previous = current;  
-            current = next;
-            hull.add(current);  
-        } while (!current.equals(start));
-		return hull;
+                current = next;
+            } while ((xs[current] != xs[start] || ys[current] != ys[start]) && size < n);
+
+            return Arrays.copyOf(hull, size);
+        }
     }
 
-    private static Point findLowestPoint(ArrayList<Point> points) {
-        Point lowest = points.get(0);
+    // Smallest x, ties broken by smallest y
+    private static int findLowestPoint(double[] xs, double[] ys, int[] candidates) {
+        int lowest = candidates[0];
 
-        for (Point p : points) {
-            if (p.y < lowest.y) {
-                lowest = p;
+        for (int i : candidates) {
+            if (xs[i] < xs[lowest] || (xs[i] == xs[lowest] && ys[i] < ys[lowest])) {
+                lowest = i;
             }
         }
 
         return lowest;
     }
 
-    private static double calculateAngle(Point previous, Point current, Point candidate) {
-        double deltaX1 = current.x - previous.x;
-        double deltaY1 = current.y - previous.y;
-        double deltaX2 = candidate.x - current.x;
-        double deltaY2 = candidate.y - current.y;
-
-        double dotProduct = deltaX1 * deltaX2 + deltaY1 * deltaY2;
-        double magnitude1 = Math.sqrt(deltaX1 * deltaX1 + deltaY1 * deltaY1);
-        double magnitude2 = Math.sqrt(deltaX2 * deltaX2 + deltaY2 * deltaY2);
-
-        return Math.acos(dotProduct / (magnitude1 * magnitude2));  
+    private static double distanceSquared(double[] xs, double[] ys, int p, int q) {
+        double dx = xs[q] - xs[p];
+        double dy = ys[q] - ys[p];
+        return dx * dx + dy * dy;
     }
 }
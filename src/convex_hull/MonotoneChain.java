@@ -0,0 +1,66 @@
+package convex_hull;
+
+import geometry.IndexSort;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+
+// Andrew's monotone chain over an index array. Shared by the hull algorithms so they
+// agree on the canonical output: counter-clockwise, starting at the smallest x (then
+// y), no collinear vertices, duplicates collapsed to their lowest index.
+final class MonotoneChain {
+
+    private MonotoneChain() {
+    }
+
+    // Sorts indices[0, count) in place and returns the hull of those points
+    static int[] hull(double[] xs, double[] ys, int[] indices, int count) {
+        IndexSort.sortLexicographic(xs, ys, indices, 0, count);
+
+        // Drop duplicates so they can not end up on both chains, keeping the lowest index
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int p = indices[i];
+            if (n > 0 && xs[indices[n - 1]] == xs[p] && ys[indices[n - 1]] == ys[p]) {
+                indices[n - 1] = Math.min(indices[n - 1], p);
+                continue;
+            }
+            indices[n++] = p;
+        }
+        if (n < 3) {
+            return Arrays.copyOf(indices, n);
+        }
+
+        int[] hull = new int[2 * n];
+        int size = 0;
+
+        // Lower chain, left to right
+        for (int i = 0; i < n; i++) {
+            int p = indices[i];
+            while (size >= 2 && orientation(xs, ys, hull[size - 2], hull[size - 1], p) <= 0) {
+                if (Trace.ENABLED) Trace.event("MonotoneChain", "Removing point from lower chain: " + hull[size - 1]);
+                size--;
+            }
+            hull[size++] = p;
+        }
+
+        // Upper chain, right to left
+        int lowerSize = size + 1;
+        for (int i = n - 2; i >= 0; i--) {
+            int p = indices[i];
+            while (size >= lowerSize && orientation(xs, ys, hull[size - 2], hull[size - 1], p) <= 0) {
+                if (Trace.ENABLED) Trace.event("MonotoneChain", "Removing point from upper chain: " + hull[size - 1]);
+                size--;
+            }
+            hull[size++] = p;
+        }
+
+        // The last point repeats the first one
+        return Arrays.copyOf(hull, size - 1);
+    }
+
+    static double orientation(double[] xs, double[] ys, int p, int q, int r) {
+        Trace.orientationTest();
+        return Predicates.orient2d(xs[p], ys[p], xs[q], ys[q], xs[r], ys[r]);
+    }
+}
@@ -0,0 +1,86 @@
+package convex_hull;
+
+import geometry.PointSet;
+import geometry.Trace;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Drops interior points with AklToussaintFilter, splits the rest into ranges of at
+// most sequentialCutoff points, computes their hulls with the monotone chain on the
+// fork-join pool and merges the sub-hulls pairwise. A vertex of the full hull is a
+// vertex of every sub-hull that contains it, so the result equals
+// GrahamScan.findConvexHull on the same points.
+public class ParallelConvexHull {
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 1 << 16;
+
+    private ParallelConvexHull() {
+    }
+
+    public static int[] findConvexHull(PointSet points) {
+        return findConvexHull(points, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    @SuppressWarnings("try")
+    public static int[] findConvexHull(PointSet points, ForkJoinPool pool, int sequentialCutoff) {
+        if (sequentialCutoff < 3) {
+            throw new IllegalArgumentException("Sequential cutoff must be at least 3.");
+        }
+        try (Trace.Scope scope = Trace.begin("ParallelConvexHull.findConvexHull")) {
+            int[] candidates = AklToussaintFilter.filter(points, pool);
+            if (candidates.length <= sequentialCutoff) {
+                return MonotoneChain.hull(points.xArray(), points.yArray(), candidates, candidates.length);
+            }
+            HullTask task = new HullTask(points.xArray(), points.yArray(), candidates, 0, candidates.length, sequentialCutoff);
+            return pool.invoke(task);
+        }
+    }
+
+    private static final class HullTask extends RecursiveTask<int[]> {
+        private final double[] xs;
+        private final double[] ys;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+        private final int sequentialCutoff;
+        private final Trace.Scope scope = Trace.current();  // of the thread creating the task
+
+        HullTask(double[] xs, double[] ys, int[] candidates, int from, int to, int sequentialCutoff) {
+            this.xs = xs;
+            this.ys = ys;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.sequentialCutoff = sequentialCutoff;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected int[] compute() {
+            try (Trace.Scope attached = Trace.attach(scope)) {
+                return hull();
+            }
+        }
+
+        private int[] hull() {
+            int count = to - from;
+            if (count <= sequentialCutoff) {
+                int[] indices = Arrays.copyOfRange(candidates, from, to);
+                return MonotoneChain.hull(xs, ys, indices, count);
+            }
+
+            int mid = (from + to) >>> 1;
+            HullTask left = new HullTask(xs, ys, candidates, from, mid, sequentialCutoff);
+            HullTask right = new HullTask(xs, ys, candidates, mid, to, sequentialCutoff);
+            left.fork();
+            int[] rightHull = right.compute();
+            int[] leftHull = left.join();
+
+            // Merge: the hull of both hulls' vertices
+            int[] merged = new int[leftHull.length + rightHull.length];
+            System.arraycopy(leftHull, 0, merged, 0, leftHull.length);
+            System.arraycopy(rightHull, 0, merged, leftHull.length, rightHull.length);
+            return MonotoneChain.hull(xs, ys, merged, merged.length);
+        }
+    }
+}
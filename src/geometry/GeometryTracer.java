@@ -0,0 +1,33 @@
+package geometry;
+
+// Receives trace output from the algorithms. Only called when tracing is enabled
+// with -Dgeometry.trace=true, see Trace.
+public interface GeometryTracer {
+
+    void event(String algorithm, String message);
+
+    // Called once per traced invocation with the counters collected during it
+    void completed(String algorithm, OperationCounters counters, long elapsedNanos);
+
+    GeometryTracer NONE = new GeometryTracer() {
+        @Override
+        public void event(String algorithm, String message) {
+        }
+
+        @Override
+        public void completed(String algorithm, OperationCounters counters, long elapsedNanos) {
+        }
+    };
+
+    GeometryTracer STDOUT = new GeometryTracer() {
+        @Override
+        public void event(String algorithm, String message) {
+            System.out.println(algorithm + ": " + message);
+        }
+
+        @Override
+        public void completed(String algorithm, OperationCounters counters, long elapsedNanos) {
+            System.out.printf("%s: %.3f ms, %s%n", algorithm, elapsedNanos / 1e6, counters);
+        }
+    };
+}
@@ -0,0 +1,227 @@
+package geometry;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// In-place sorting of index arrays by coordinate, without boxing.
+public final class IndexSort {
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+    private static final int MORTON_BITS = 21;  // per axis, the code stays exact in a double
+
+    private IndexSort() {
+    }
+
+    // Sorts idx[from, to) by primary key, ties broken by secondary key
+    public static void sortLexicographic(double[] primary, double[] secondary, int[] idx, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            int pivot = medianOfThree(primary, secondary, idx[from], idx[mid], idx[to - 1]);
+            int i = from, j = to - 1;
+            while (i <= j) {
+                while (compare(primary, secondary, idx[i], pivot) < 0) i++;
+                while (compare(primary, secondary, idx[j], pivot) > 0) j--;
+                if (i <= j) {
+                    int tmp = idx[i];
+                    idx[i] = idx[j];
+                    idx[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (j - from < to - i) {
+                sortLexicographic(primary, secondary, idx, from, j + 1);
+                from = i;
+            } else {
+                sortLexicographic(primary, secondary, idx, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int current = idx[i];
+            int j = i - 1;
+            while (j >= from && compare(primary, secondary, idx[j], current) > 0) {
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            idx[j + 1] = current;
+        }
+    }
+
+    // Same order as sortLexicographic except among equal keys: ranges of at most cutoff
+    // indices are sorted on the pool and merged pairwise through a scratch buffer
+    public static void parallelSortLexicographic(double[] primary, double[] secondary, int[] idx, int from, int to,
+                                                 ForkJoinPool pool, int cutoff) {
+        if (to - from <= cutoff) {
+            sortLexicographic(primary, secondary, idx, from, to);
+            return;
+        }
+        int[] buffer = new int[idx.length];
+        pool.invoke(new SortTask(primary, secondary, idx, buffer, from, to, Math.max(cutoff, 1)));
+    }
+
+    public static void sortByKey(double[] keys, int[] idx, int from, int to) {
+        sortLexicographic(keys, keys, idx, from, to);
+    }
+
+    // Sorts keys[from, to) ascending and applies the same permutation to values. The keys
+    // move with their values, so the comparisons read memory in order instead of through
+    // an index; for keys held in no other array. NaN keys are not supported.
+    public static void sortWithValues(double[] keys, int[] values, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            double a = keys[from], b = keys[mid], c = keys[to - 1];
+            double pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+            int i = from, j = to - 1;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    double key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    int value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (j - from < to - i) {
+                sortWithValues(keys, values, from, j + 1);
+                from = i;
+            } else {
+                sortWithValues(keys, values, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            double key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+    // Indices 0..n-1 of the point set ordered by x, then y
+    public static int[] sortedByXY(PointSet points) {
+        int n = points.size();
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        sortLexicographic(points.xArray(), points.yArray(), idx, 0, n);
+        return idx;
+    }
+
+    // Indices 0..n-1 ordered along a Morton (Z-order) curve over the points' bounding
+    // box, so that consecutive indices are mostly close in the plane. With a pool the
+    // sort runs on it, as in parallelSortLexicographic.
+    public static int[] mortonOrder(PointStore points, ForkJoinPool pool, int cutoff) {
+        int count = points.size();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double x = points.x(i), y = points.y(i);
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+        double cells = (1 << MORTON_BITS) - 1;
+        double scaleX = maxX > minX ? cells / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? cells / (maxY - minY) : 0;
+        double[] keys = new double[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            // NaN and infinite coordinates saturate to a corner cell
+            int cx = (int) ((points.x(i) - minX) * scaleX);
+            int cy = (int) ((points.y(i) - minY) * scaleY);
+            keys[i] = spreadBits(cx) | spreadBits(cy) << 1;
+            order[i] = i;
+        }
+        if (pool == null) {
+            sortByKey(keys, order, 0, count);
+        } else {
+            parallelSortLexicographic(keys, keys, order, 0, count, pool, cutoff);
+        }
+        return order;
+    }
+
+    public static int[] mortonOrder(PointStore points) {
+        return mortonOrder(points, null, 0);
+    }
+
+    // Moves bit i of value to bit 2i
+    private static long spreadBits(int value) {
+        long v = value & 0x1fffffL;
+        v = (v | v << 32) & 0x1f00000000ffffL;
+        v = (v | v << 16) & 0x1f0000ff0000ffL;
+        v = (v | v << 8) & 0x100f00f00f00f00fL;
+        v = (v | v << 4) & 0x10c30c30c30c30c3L;
+        v = (v | v << 2) & 0x1249249249249249L;
+        return v;
+    }
+
+    private static int medianOfThree(double[] primary, double[] secondary, int a, int b, int c) {
+        if (compare(primary, secondary, a, b) > 0) { int t = a; a = b; b = t; }
+        if (compare(primary, secondary, b, c) > 0) { b = c; }
+        return compare(primary, secondary, a, b) > 0 ? a : b;
+    }
+
+    private static int compare(double[] primary, double[] secondary, int a, int b) {
+        int c = Double.compare(primary[a], primary[b]);
+        return c != 0 ? c : Double.compare(secondary[a], secondary[b]);
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private final double[] primary;
+        private final double[] secondary;
+        private final int[] idx;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final int cutoff;
+
+        SortTask(double[] primary, double[] secondary, int[] idx, int[] buffer, int from, int to, int cutoff) {
+            this.primary = primary;
+            this.secondary = secondary;
+            this.idx = idx;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= cutoff) {
+                sortLexicographic(primary, secondary, idx, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            SortTask left = new SortTask(primary, secondary, idx, buffer, from, mid, cutoff);
+            left.fork();
+            new SortTask(primary, secondary, idx, buffer, mid, to, cutoff).compute();
+            left.join();
+            if (compare(primary, secondary, idx[mid - 1], idx[mid]) <= 0) {
+                return;  // already in order
+            }
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) {
+                buffer[k++] = compare(primary, secondary, idx[j], idx[i]) < 0 ? idx[j++] : idx[i++];
+            }
+            while (i < mid) {
+                buffer[k++] = idx[i++];
+            }
+            System.arraycopy(buffer, from, idx, from, j - from);
+        }
+    }
+}
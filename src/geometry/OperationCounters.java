@@ -0,0 +1,57 @@
+package geometry;
+
+// Operation counts of one traced invocation
+public class OperationCounters {
+    long orientationTests;
+    long circumcircleTests;
+    long edgeInsertions;
+    long edgeDeletions;
+    long edgeFlips;
+    long nodeVisits;
+
+    OperationCounters() {
+    }
+
+    public long getOrientationTests() {
+        return orientationTests;
+    }
+
+    public long getCircumcircleTests() {
+        return circumcircleTests;
+    }
+
+    public long getEdgeInsertions() {
+        return edgeInsertions;
+    }
+
+    public long getEdgeDeletions() {
+        return edgeDeletions;
+    }
+
+    public long getEdgeFlips() {
+        return edgeFlips;
+    }
+
+    public long getNodeVisits() {
+        return nodeVisits;
+    }
+
+    void add(OperationCounters other) {
+        orientationTests += other.orientationTests;
+        circumcircleTests += other.circumcircleTests;
+        edgeInsertions += other.edgeInsertions;
+        edgeDeletions += other.edgeDeletions;
+        edgeFlips += other.edgeFlips;
+        nodeVisits += other.nodeVisits;
+    }
+
+    @Override
+    public String toString() {
+        return "orientation=" + orientationTests
+                + " circumcircle=" + circumcircleTests
+                + " edgeInsertions=" + edgeInsertions
+                + " edgeDeletions=" + edgeDeletions
+                + " edgeFlips=" + edgeFlips
+                + " nodeVisits=" + nodeVisits;
+    }
+}
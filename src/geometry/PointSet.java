@@ -0,0 +1,109 @@
+package geometry;
+
+import java.util.Arrays;
+
+// Points stored as parallel coordinate arrays and addressed by int index, so the
+// algorithms can run over large inputs without a java.awt.Point per element.
+public class PointSet implements PointStore {
+    private double[] xs;
+    private double[] ys;
+    private int size;
+
+    public PointSet() {
+        this(16);
+    }
+
+    public PointSet(int capacity) {
+        this.xs = new double[Math.max(capacity, 1)];
+        this.ys = new double[Math.max(capacity, 1)];
+    }
+
+    // Wraps the given arrays without copying them
+    public PointSet(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length.");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.size = xs.length;
+    }
+
+    public static PointSet fromInts(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length.");
+        }
+        PointSet set = new PointSet(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            set.add(xs[i], ys[i]);
+        }
+        return set;
+    }
+
+    // Copies any store into heap arrays, e.g. to run the algorithms over a mapped file
+    public static PointSet copyOf(PointStore store) {
+        if (store instanceof PointSet) {
+            PointSet source = (PointSet) store;
+            return new PointSet(Arrays.copyOf(source.xs, source.size), Arrays.copyOf(source.ys, source.size));
+        }
+        int n = store.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = store.x(i);
+            ys[i] = store.y(i);
+        }
+        return new PointSet(xs, ys);
+    }
+
+    public int add(double x, double y) {
+        if (size == xs.length) {
+            int capacity = xs.length + (xs.length >> 1) + 1;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        return size++;
+    }
+
+    public void set(int index, double x, double y) {
+        checkIndex(index);
+        xs[index] = x;
+        ys[index] = y;
+    }
+
+    @Override
+    public double x(int index) {
+        return xs[index];
+    }
+
+    @Override
+    public double y(int index) {
+        return ys[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Backing arrays for hot loops; only the first size() entries are valid and the
+    // arrays are replaced when the set grows.
+    public double[] xArray() {
+        return xs;
+    }
+
+    public double[] yArray() {
+        return ys;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
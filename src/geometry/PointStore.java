@@ -0,0 +1,11 @@
+package geometry;
+
+// Read-only view of points addressed by index. PointSet keeps them on the heap;
+// other implementations may read them in place, e.g. from a memory-mapped file.
+public interface PointStore {
+    int size();
+
+    double x(int index);
+
+    double y(int index);
+}
@@ -0,0 +1,182 @@
+package geometry;
+
+import java.util.Arrays;
+
+// Robust orientation and in-circle tests after Shewchuk, "Adaptive Precision
+// Floating-Point Arithmetic and Fast Robust Geometric Predicates" (1997).
+//
+// Each test first evaluates the determinant in plain doubles and accepts the result
+// when its magnitude exceeds a forward error bound, which is the case for almost all
+// inputs. Only near-degenerate inputs fall through to an exact evaluation. The sign
+// of the returned value is always exact; its magnitude is only an approximation.
+public final class Predicates {
+    private static final double EPSILON = Math.ulp(1.0) / 2;  // 2^-53
+    private static final double CCW_ERROR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+    private static final double ICC_ERROR_BOUND = (10 + 96 * EPSILON) * EPSILON;
+
+    private Predicates() {
+    }
+
+    // Positive if a, b, c turn counter-clockwise, negative if clockwise, zero if collinear
+    public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+        double detLeft = (ax - cx) * (by - cy);
+        double detRight = (ay - cy) * (bx - cx);
+        double det = detLeft - detRight;
+
+        double detSum;
+        if (detLeft > 0) {
+            if (detRight <= 0) return det;
+            detSum = detLeft + detRight;
+        } else if (detLeft < 0) {
+            if (detRight >= 0) return det;
+            detSum = -detLeft - detRight;
+        } else {
+            return det;
+        }
+
+        double bound = CCW_ERROR_BOUND * detSum;
+        if (det >= bound || -det >= bound) {
+            return det;
+        }
+        return orient2dExact(ax, ay, bx, by, cx, cy);
+    }
+
+    // Positive if d lies inside the circle through a, b, c (counter-clockwise),
+    // negative if outside, zero if the four points are cocircular
+    public static double incircle(double ax, double ay, double bx, double by,
+                                  double cx, double cy, double dx, double dy) {
+        double adx = ax - dx, ady = ay - dy;
+        double bdx = bx - dx, bdy = by - dy;
+        double cdx = cx - dx, cdy = cy - dy;
+
+        double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+        double cdxady = cdx * ady, adxcdy = adx * cdy;
+        double adxbdy = adx * bdy, bdxady = bdx * ady;
+        double alift = adx * adx + ady * ady;
+        double blift = bdx * bdx + bdy * bdy;
+        double clift = cdx * cdx + cdy * cdy;
+
+        double det = alift * (bdxcdy - cdxbdy)
+                   + blift * (cdxady - adxcdy)
+                   + clift * (adxbdy - bdxady);
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                         + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                         + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        // A zero permanent means every term vanished, e.g. when d repeats a vertex
+        double bound = ICC_ERROR_BOUND * permanent;
+        if (det > bound || -det > bound || permanent == 0) {
+            return det;
+        }
+        return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    // The exact paths evaluate the determinants on floating-point expansions: a value is
+    // held as a sum of non-overlapping doubles, smallest magnitude first, so the last
+    // component carries the sign. Only doubles are involved, no BigDecimal.
+
+    private static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+        double[] acx = difference(ax, cx), acy = difference(ay, cy);
+        double[] bcx = difference(bx, cx), bcy = difference(by, cy);
+        double[] det = sum(multiply(acx, bcy), negate(multiply(acy, bcx)));
+        return det[det.length - 1];
+    }
+
+    private static double incircleExact(double ax, double ay, double bx, double by,
+                                        double cx, double cy, double dx, double dy) {
+        double[] adx = difference(ax, dx), ady = difference(ay, dy);
+        double[] bdx = difference(bx, dx), bdy = difference(by, dy);
+        double[] cdx = difference(cx, dx), cdy = difference(cy, dy);
+        double[] alift = sum(multiply(adx, adx), multiply(ady, ady));
+        double[] blift = sum(multiply(bdx, bdx), multiply(bdy, bdy));
+        double[] clift = sum(multiply(cdx, cdx), multiply(cdy, cdy));
+        double[] bc = sum(multiply(bdx, cdy), negate(multiply(cdx, bdy)));
+        double[] ca = sum(multiply(cdx, ady), negate(multiply(adx, cdy)));
+        double[] ab = sum(multiply(adx, bdy), negate(multiply(bdx, ady)));
+        double[] det = sum(sum(multiply(alift, bc), multiply(blift, ca)), multiply(clift, ab));
+        return det[det.length - 1];
+    }
+
+    // a - b as an expansion of one or two components (Two-Diff)
+    private static double[] difference(double a, double b) {
+        double x = a - b;
+        double bVirtual = a - x;
+        double aVirtual = x + bVirtual;
+        double y = (a - aVirtual) + (bVirtual - b);
+        return y == 0 ? new double[] {x} : new double[] {y, x};
+    }
+
+    private static double[] negate(double[] e) {
+        double[] result = new double[e.length];
+        for (int i = 0; i < e.length; i++) {
+            result[i] = -e[i];
+        }
+        return result;
+    }
+
+    private static double[] multiply(double[] e, double[] f) {
+        double[] result = scale(e, f[0]);
+        for (int i = 1; i < f.length; i++) {
+            result = sum(result, scale(e, f[i]));
+        }
+        return result;
+    }
+
+    // Shewchuk's Scale-Expansion with zero elimination; products are split with fma
+    private static double[] scale(double[] e, double b) {
+        double[] h = new double[2 * e.length];
+        int size = 0;
+        double q = e[0] * b;
+        double tail = Math.fma(e[0], b, -q);
+        if (tail != 0) h[size++] = tail;
+        for (int i = 1; i < e.length; i++) {
+            double product1 = e[i] * b;
+            double product0 = Math.fma(e[i], b, -product1);
+            double sum = q + product0;
+            tail = twoSumTail(q, product0, sum);
+            if (tail != 0) h[size++] = tail;
+            q = product1 + sum;
+            tail = sum - (q - product1);
+            if (tail != 0) h[size++] = tail;
+        }
+        if (q != 0 || size == 0) h[size++] = q;
+        return size == h.length ? h : Arrays.copyOf(h, size);
+    }
+
+    // Shewchuk's Fast-Expansion-Sum with zero elimination
+    private static double[] sum(double[] e, double[] f) {
+        double[] h = new double[e.length + f.length];
+        int size = 0;
+        int i = 0, j = 0;
+        double q;
+        if (takeFirst(e[0], f[0])) {
+            q = e[i++];
+        } else {
+            q = f[j++];
+        }
+        while (i < e.length || j < f.length) {
+            double next;
+            if (j == f.length || (i < e.length && takeFirst(e[i], f[j]))) {
+                next = e[i++];
+            } else {
+                next = f[j++];
+            }
+            double s = q + next;
+            double tail = twoSumTail(q, next, s);
+            if (tail != 0) h[size++] = tail;
+            q = s;
+        }
+        if (q != 0 || size == 0) h[size++] = q;
+        return size == h.length ? h : Arrays.copyOf(h, size);
+    }
+
+    // Merge order of two components: the one of smaller magnitude goes first
+    private static boolean takeFirst(double e, double f) {
+        return (f > e) == (f > -e);
+    }
+
+    private static double twoSumTail(double a, double b, double sum) {
+        double bVirtual = sum - a;
+        double aVirtual = sum - bVirtual;
+        return (a - aVirtual) + (b - bVirtual);
+    }
+}
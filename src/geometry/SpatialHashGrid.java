@@ -0,0 +1,300 @@
+package geometry;
+
+import java.util.Arrays;
+
+// Uniform grid of square cells for picking and radius queries over points that are
+// added, removed and moved one at a time. Only occupied cells take memory: they live
+// in an open-addressing table keyed by cell coordinates, and the points of a cell
+// form a doubly linked list through per-id arrays. Insert, remove and move are O(1)
+// expected; a radius query visits the cells overlapping its bounding square.
+//
+// Points are addressed by ids like DynamicConvexHull; ids of removed points are
+// reused.
+public class SpatialHashGrid {
+    private static final int NO_CELL = -2;  // table slot never used
+
+    private final double cellSize;
+    private final double inverseCellSize;
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private long[] cellOf = new long[16];
+    private int[] nextInCell = new int[16];
+    private int[] prevInCell = new int[16];
+    private boolean[] alive = new boolean[16];
+    private int idCount;
+    private int size;
+    private final IntList freeIds = new IntList();
+
+    // Cell table: keys[slot] is a packed cell, heads[slot] its first point (-1 once
+    // the cell is empty again, NO_CELL for free slots)
+    private long[] keys;
+    private int[] heads;
+    private int usedSlots;
+
+    public SpatialHashGrid(double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+        allocateTable(64);
+    }
+
+    public double cellSize() {
+        return cellSize;
+    }
+
+    public int insert(double x, double y) {
+        checkFinite(x, y);
+        int id;
+        if (!freeIds.isEmpty()) {
+            id = freeIds.removeLast();
+        } else {
+            if (idCount == xs.length) {
+                int capacity = idCount * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                cellOf = Arrays.copyOf(cellOf, capacity);
+                nextInCell = Arrays.copyOf(nextInCell, capacity);
+                prevInCell = Arrays.copyOf(prevInCell, capacity);
+                alive = Arrays.copyOf(alive, capacity);
+            }
+            id = idCount++;
+        }
+        alive[id] = true;
+        size++;
+        xs[id] = x;
+        ys[id] = y;
+        link(id, cellKey(x, y));
+        return id;
+    }
+
+    public void remove(int id) {
+        checkAlive(id);
+        unlink(id);
+        alive[id] = false;
+        size--;
+        freeIds.add(id);
+    }
+
+    // Moves a point while keeping its id; only touches the table when the cell changes
+    public void move(int id, double x, double y) {
+        checkAlive(id);
+        checkFinite(x, y);
+        xs[id] = x;
+        ys[id] = y;
+        long key = cellKey(x, y);
+        if (key != cellOf[id]) {
+            unlink(id);
+            link(id, key);
+        }
+    }
+
+    public double x(int id) {
+        return xs[id];
+    }
+
+    public double y(int id) {
+        return ys[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        freeIds.clear();
+        Arrays.fill(alive, false);
+        idCount = 0;
+        size = 0;
+        allocateTable(64);
+    }
+
+    // Id of the point closest to (x, y) among those closer than radius, the lowest id
+    // on ties; -1 if there is none
+    public int nearest(double x, double y, double radius) {
+        int best = -1;
+        if (!(radius > 0)) {
+            return best;
+        }
+        double bestDistance = radius * radius;
+        if (coversTooManyCells(x, y, radius)) {
+            for (int id = 0; id < idCount; id++) {
+                if (!alive[id]) continue;
+                double d = distanceSquared(id, x, y);
+                if (d < bestDistance || (d == bestDistance && best >= 0 && id < best)) {
+                    best = id;
+                    bestDistance = d;
+                }
+            }
+            return best;
+        }
+        int minCx = cell(x - radius), maxCx = cell(x + radius);
+        int minCy = cell(y - radius), maxCy = cell(y + radius);
+        for (long cx = minCx; cx <= maxCx; cx++) {  // long so the clamped last cell ends the loop
+            for (long cy = minCy; cy <= maxCy; cy++) {
+                int slot = find(pack((int) cx, (int) cy));
+                if (slot < 0) continue;
+                for (int id = heads[slot]; id >= 0; id = nextInCell[id]) {
+                    double d = distanceSquared(id, x, y);
+                    if (d < bestDistance || (d == bestDistance && best >= 0 && id < best)) {
+                        best = id;
+                        bestDistance = d;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Appends the ids of all points closer than radius to (x, y), in no particular order
+    public void query(double x, double y, double radius, IntList out) {
+        if (!(radius > 0)) {
+            return;
+        }
+        double limit = radius * radius;
+        if (coversTooManyCells(x, y, radius)) {
+            for (int id = 0; id < idCount; id++) {
+                if (alive[id] && distanceSquared(id, x, y) < limit) out.add(id);
+            }
+            return;
+        }
+        int minCx = cell(x - radius), maxCx = cell(x + radius);
+        int minCy = cell(y - radius), maxCy = cell(y + radius);
+        for (long cx = minCx; cx <= maxCx; cx++) {
+            for (long cy = minCy; cy <= maxCy; cy++) {
+                int slot = find(pack((int) cx, (int) cy));
+                if (slot < 0) continue;
+                for (int id = heads[slot]; id >= 0; id = nextInCell[id]) {
+                    if (distanceSquared(id, x, y) < limit) out.add(id);
+                }
+            }
+        }
+    }
+
+    private double distanceSquared(int id, double x, double y) {
+        double dx = xs[id] - x;
+        double dy = ys[id] - y;
+        return dx * dx + dy * dy;
+    }
+
+    // A query square spanning more cells than there are points is answered by a scan
+    private boolean coversTooManyCells(double x, double y, double radius) {
+        double width = (double) cell(x + radius) - cell(x - radius) + 1;
+        double height = (double) cell(y + radius) - cell(y - radius) + 1;
+        return width * height > size;
+    }
+
+    private int cell(double coordinate) {
+        double c = Math.floor(coordinate * inverseCellSize);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, c));
+    }
+
+    private long cellKey(double x, double y) {
+        return pack(cell(x), cell(y));
+    }
+
+    private static long pack(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private void link(int id, long key) {
+        int slot = findOrAdd(key);
+        int head = heads[slot];
+        cellOf[id] = key;
+        prevInCell[id] = -1;
+        nextInCell[id] = head;
+        if (head >= 0) prevInCell[head] = id;
+        heads[slot] = id;
+    }
+
+    private void unlink(int id) {
+        int prev = prevInCell[id];
+        int next = nextInCell[id];
+        if (prev >= 0) {
+            nextInCell[prev] = next;
+        } else {
+            heads[find(cellOf[id])] = next;
+        }
+        if (next >= 0) prevInCell[next] = prev;
+    }
+
+    // Linear probing over a power-of-two table
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key); heads[slot] != NO_CELL; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    private int findOrAdd(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((usedSlots + 1) * 2 > keys.length) {
+            rehash();
+        }
+        int mask = keys.length - 1;
+        slot = slotOf(key);
+        while (heads[slot] != NO_CELL) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        heads[slot] = -1;
+        usedSlots++;
+        return slot;
+    }
+
+    // Rebuilds the table with the occupied cells only, sized for twice their number
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        int occupied = 0;
+        for (int head : oldHeads) {
+            if (head >= 0) occupied++;
+        }
+        int capacity = 64;
+        while (capacity < occupied * 4) {
+            capacity <<= 1;
+        }
+        allocateTable(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] < 0) continue;
+            int slot = slotOf(oldKeys[i]);
+            while (heads[slot] != NO_CELL) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            heads[slot] = oldHeads[i];
+            usedSlots++;
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        keys = new long[capacity];
+        heads = new int[capacity];
+        Arrays.fill(heads, NO_CELL);
+        usedSlots = 0;
+    }
+
+    private void checkAlive(int id) {
+        if (id < 0 || id >= idCount || !alive[id]) {
+            throw new IllegalArgumentException("Unknown point id " + id);
+        }
+    }
+
+    private static void checkFinite(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("Point coordinates must be finite: (" + x + ", " + y + ")");
+        }
+    }
+}
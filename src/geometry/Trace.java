@@ -0,0 +1,143 @@
+package geometry;
+
+// Instrumentation hooks for the algorithms. ENABLED is a compile-time-like constant
+// read once from -Dgeometry.trace; when it is false every hook is an empty static
+// method behind a constant branch, which the JIT removes after inlining.
+//
+// Usage in an algorithm:
+//     try (Trace.Scope scope = Trace.begin("GrahamScan.findConvexHull")) {
+//         ... Trace.orientationTest(); ...
+//     }
+// begin() returns null when tracing is disabled, and try-with-resources skips
+// close() for null resources. The scope variable is usually not referenced in the
+// body, so such methods carry @SuppressWarnings("try").
+//
+// Counts go to the current scope of the counting thread. A fork-join task takes
+// Trace.current() when it is created and runs its work inside Trace.attach(scope),
+// so counts made on pool workers are added to the invocation that forked it.
+public final class Trace {
+    public static final boolean ENABLED = Boolean.getBoolean("geometry.trace");
+
+    private static volatile GeometryTracer tracer = GeometryTracer.STDOUT;
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private Trace() {
+    }
+
+    public static void setTracer(GeometryTracer newTracer) {
+        tracer = newTracer == null ? GeometryTracer.NONE : newTracer;
+    }
+
+    public static Scope begin(String algorithm) {
+        if (!ENABLED) return null;
+        Scope previous = CURRENT.get();
+        Scope scope = new Scope(algorithm, previous, previous);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // The innermost scope on this thread, to hand to tasks that run elsewhere; null
+    // when tracing is disabled or nothing is traced
+    public static Scope current() {
+        return ENABLED ? CURRENT.get() : null;
+    }
+
+    // Continues parent on this thread, typically a pool worker running a task that
+    // parent's invocation forked. Counts made until close() are added to parent, which
+    // must stay open until the task is joined. Null when parent is null.
+    public static Scope attach(Scope parent) {
+        if (!ENABLED || parent == null) return null;
+        Scope scope = new Scope(null, parent, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // Callers guard with "if (Trace.ENABLED)" so the message is never built otherwise
+    public static void event(String algorithm, String message) {
+        if (ENABLED) tracer.event(algorithm, message);
+    }
+
+    public static void orientationTest() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.orientationTests++;
+        }
+    }
+
+    public static void circumcircleTest() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.circumcircleTests++;
+        }
+    }
+
+    public static void edgeInserted() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.edgeInsertions++;
+        }
+    }
+
+    public static void edgeDeleted() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.edgeDeletions++;
+        }
+    }
+
+    public static void edgeFlipped() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.edgeFlips++;
+        }
+    }
+
+    public static void nodeVisited() {
+        if (ENABLED) {
+            Scope scope = CURRENT.get();
+            if (scope != null) scope.counters.nodeVisits++;
+        }
+    }
+
+    // One traced invocation, or a part of one attached on another thread. Counters of
+    // nested invocations and attached parts are added to the enclosing scope when they
+    // complete.
+    public static final class Scope implements AutoCloseable {
+        private final String algorithm;  // null for an attached part
+        private final Scope parent;
+        private final Scope previous;    // restored as the thread's current scope on close
+        private final OperationCounters counters = new OperationCounters();
+        private final OperationCounters attached = new OperationCounters();  // guarded by itself
+        private final long startNanos = System.nanoTime();
+
+        private Scope(String algorithm, Scope parent, Scope previous) {
+            this.algorithm = algorithm;
+            this.parent = parent;
+            this.previous = previous;
+        }
+
+        public OperationCounters counters() {
+            return counters;
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            synchronized (attached) {
+                counters.add(attached);
+            }
+            CURRENT.set(previous);
+            if (algorithm == null) {
+                // Another thread owns parent.counters, so go through its lock
+                synchronized (parent.attached) {
+                    parent.attached.add(counters);
+                }
+                return;
+            }
+            if (parent != null) {
+                parent.counters.add(counters);
+            }
+            tracer.completed(algorithm, counters, elapsed);
+        }
+    }
+}
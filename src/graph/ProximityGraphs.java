@@ -0,0 +1,284 @@
+package graph;
+
+import geometry.IndexSort;
+import geometry.IntList;
+import geometry.PointSet;
+import geometry.Trace;
+import java.util.Arrays;
+import triangulation.DelaunayTriangulation;
+import triangulation.TriangleMesh;
+
+// Proximity graphs of a point set, read off its Delaunay triangulation instead of
+// comparing all pairs. Each is a subgraph of the next:
+//
+//   minimum spanning tree  <=  relative neighbourhood graph  <=  Gabriel graph  <=  Delaunay
+//
+// and every point's nearest neighbour is one of its Delaunay neighbours, so with the
+// O(n) Delaunay edges as candidates each graph costs O(n log n) from the points on.
+//
+// Every method takes a DelaunayTriangulation after performTriangulation() and returns
+// edges as consecutive (start, end) index pairs into its points. The triangulation
+// keeps one point of each group of coincident points; the others are joined to it here
+// by zero-length edges, so every graph covers all points.
+public final class ProximityGraphs {
+
+    private ProximityGraphs() {
+    }
+
+    // Euclidean minimum spanning tree by Kruskal over the Delaunay edges. The n - 1
+    // edges come out by increasing length, so cutting the tail off gives single-linkage
+    // clusters.
+    @SuppressWarnings("try")
+    public static int[] minimumSpanningTree(DelaunayTriangulation delaunay) {
+        try (Trace.Scope scope = Trace.begin("ProximityGraphs.minimumSpanningTree")) {
+            TriangleMesh mesh = meshOf(delaunay);
+            int n = mesh.vertexCount();
+            // The tree is part of the Gabriel graph, which leaves about a third fewer edges to sort
+            int[] edges = select(candidateEdges(delaunay, mesh), gabrielEdges(mesh));
+            int m = edges.length / 2;
+            double[] lengths = new double[m];
+            int[] order = new int[m];
+            for (int i = 0; i < m; i++) {
+                lengths[i] = squaredDistance(mesh, edges[2 * i], edges[2 * i + 1]);
+                order[i] = i;
+            }
+            IndexSort.sortWithValues(lengths, order, 0, m);
+
+            UnionFind sets = new UnionFind(n);
+            IntList tree = new IntList(Math.max(2 * (n - 1), 0));
+            int[] coincident = coincidentPairs(mesh, edges);
+            for (int i = 0; i < coincident.length; i += 2) {
+                sets.union(coincident[i], coincident[i + 1]);
+                tree.add(coincident[i]);
+                tree.add(coincident[i + 1]);
+            }
+            for (int i = 0; i < m && sets.setCount() > 1; i++) {
+                int a = edges[2 * order[i]], b = edges[2 * order[i] + 1];
+                if (sets.union(a, b)) {
+                    tree.add(a);
+                    tree.add(b);
+                }
+            }
+            return tree.toArray();
+        }
+    }
+
+    // Index of the nearest other point for every point (one of them when tied), -1 for
+    // a point set of a single point
+    @SuppressWarnings("try")
+    public static int[] nearestNeighbours(DelaunayTriangulation delaunay) {
+        try (Trace.Scope scope = Trace.begin("ProximityGraphs.nearestNeighbours")) {
+            TriangleMesh mesh = meshOf(delaunay);
+            int n = mesh.vertexCount();
+            int[] edges = delaunay.getEdgeIndices();
+            int[] nearest = new int[n];
+            double[] best = new double[n];
+            Arrays.fill(nearest, -1);
+            Arrays.fill(best, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < edges.length; i += 2) {
+                int a = edges[i], b = edges[i + 1];
+                double d = squaredDistance(mesh, a, b);
+                if (d < best[a]) {
+                    best[a] = d;
+                    nearest[a] = b;
+                }
+                if (d < best[b]) {
+                    best[b] = d;
+                    nearest[b] = a;
+                }
+            }
+            int[] coincident = coincidentPairs(mesh, edges);
+            for (int i = 0; i < coincident.length; i += 2) {
+                int kept = coincident[i], other = coincident[i + 1];
+                nearest[other] = kept;
+                if (best[kept] > 0) {
+                    best[kept] = 0;
+                    nearest[kept] = other;
+                }
+            }
+            return nearest;
+        }
+    }
+
+    // Edges whose diametral disk holds no other point. For a Delaunay edge only the
+    // vertices opposite it in its (at most two) triangles need to be checked.
+    @SuppressWarnings("try")
+    public static int[] gabrielGraph(DelaunayTriangulation delaunay) {
+        try (Trace.Scope scope = Trace.begin("ProximityGraphs.gabrielGraph")) {
+            TriangleMesh mesh = meshOf(delaunay);
+            int[] edges = candidateEdges(delaunay, mesh);
+            return withCoincident(select(edges, gabrielEdges(mesh)), coincidentPairs(mesh, edges));
+        }
+    }
+
+    // Edges pq with no point r closer to both p and q than they are to each other,
+    // i.e. none in the lune of pq. Only Gabriel edges can qualify. A point in the lune
+    // lies in the disk around p through q, and every point of that disk is reached from
+    // p over Delaunay edges that stay inside it: greedy routing towards p succeeds in a
+    // Delaunay triangulation. So a search from p that does not leave the disk finds all
+    // candidates, touching O(1) points per edge for evenly spread input.
+    @SuppressWarnings("try")
+    public static int[] relativeNeighbourhoodGraph(DelaunayTriangulation delaunay) {
+        try (Trace.Scope scope = Trace.begin("ProximityGraphs.relativeNeighbourhoodGraph")) {
+            TriangleMesh mesh = meshOf(delaunay);
+            int n = mesh.vertexCount();
+            int[] edges = candidateEdges(delaunay, mesh);
+            boolean[] keep = gabrielEdges(mesh);
+            if (keep == null) {
+                keep = new boolean[edges.length / 2];
+                Arrays.fill(keep, true);
+            }
+
+            // Adjacency in compressed rows: the neighbours of v are at [offsets[v], offsets[v + 1])
+            int[] offsets = new int[n + 1];
+            for (int v : edges) {
+                offsets[v + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] neighbours = new int[edges.length];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < edges.length; i += 2) {
+                neighbours[fill[edges[i]]++] = edges[i + 1];
+                neighbours[fill[edges[i + 1]]++] = edges[i];
+            }
+
+            int[] visited = new int[n];  // edge that last visited the vertex, plus one
+            int[] queue = new int[n];
+            for (int k = 0; k < keep.length; k++) {
+                if (!keep[k]) continue;
+                int p = edges[2 * k], q = edges[2 * k + 1];
+                double limit = squaredDistance(mesh, p, q);
+                int head = 0, tail = 0;
+                queue[tail++] = p;
+                visited[p] = k + 1;
+                search:
+                while (head < tail) {
+                    int v = queue[head++];
+                    Trace.nodeVisited();
+                    for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                        int r = neighbours[j];
+                        if (visited[r] == k + 1 || squaredDistance(mesh, p, r) >= limit) continue;
+                        visited[r] = k + 1;
+                        if (squaredDistance(mesh, q, r) < limit) {
+                            keep[k] = false;
+                            break search;
+                        }
+                        queue[tail++] = r;
+                    }
+                }
+            }
+            return withCoincident(select(edges, keep), coincidentPairs(mesh, edges));
+        }
+    }
+
+    private static TriangleMesh meshOf(DelaunayTriangulation delaunay) {
+        TriangleMesh mesh = delaunay.getMesh();
+        if (mesh == null) {
+            throw new IllegalStateException("Run performTriangulation() before building proximity graphs.");
+        }
+        return mesh;
+    }
+
+    // The Delaunay edges, in the order of TriangleMesh.edges() when there are triangles
+    private static int[] candidateEdges(DelaunayTriangulation delaunay, TriangleMesh mesh) {
+        return mesh.triangleCount() > 0 ? mesh.edges() : delaunay.getEdgeIndices();
+    }
+
+    // Per edge of mesh.edges(): whether both opposite angles are acute. Null without
+    // triangles, where the edges form a chain through collinear points and all qualify.
+    private static boolean[] gabrielEdges(TriangleMesh mesh) {
+        if (mesh.triangleCount() == 0) {
+            return null;
+        }
+        int[] halfedges = mesh.getHalfedges();
+        boolean[] keep = new boolean[mesh.edges().length / 2];
+        int k = 0;
+        for (int e = 0; e < halfedges.length; e++) {
+            if (halfedges[e] < e) {
+                keep[k++] = !inDiametralDisk(mesh, e) && (halfedges[e] < 0 || !inDiametralDisk(mesh, halfedges[e]));
+            }
+        }
+        return keep;
+    }
+
+    // Whether the vertex opposite half-edge e lies in the closed disk spanned by e
+    private static boolean inDiametralDisk(TriangleMesh mesh, int e) {
+        int a = mesh.origin(e), b = mesh.destination(e);
+        int c = mesh.origin(TriangleMesh.prevHalfedge(e));
+        double cx = mesh.x(c), cy = mesh.y(c);
+        return (mesh.x(a) - cx) * (mesh.x(b) - cx) + (mesh.y(a) - cy) * (mesh.y(b) - cy) <= 0;
+    }
+
+    private static int[] select(int[] edges, boolean[] keep) {
+        if (keep == null) {
+            return edges.clone();
+        }
+        IntList result = new IntList(edges.length);
+        for (int k = 0; k < keep.length; k++) {
+            if (keep[k]) {
+                result.add(edges[2 * k]);
+                result.add(edges[2 * k + 1]);
+            }
+        }
+        return result.toArray();
+    }
+
+    private static int[] withCoincident(int[] edges, int[] coincident) {
+        if (coincident.length == 0) {
+            return edges;
+        }
+        int[] result = Arrays.copyOf(edges, edges.length + coincident.length);
+        System.arraycopy(coincident, 0, result, edges.length, coincident.length);
+        return result;
+    }
+
+    // (kept, left out) pairs for the points the triangulation left out as coincident
+    // with another one. Sorting is only needed when some point has no Delaunay edge.
+    private static int[] coincidentPairs(TriangleMesh mesh, int[] edges) {
+        int n = mesh.vertexCount();
+        boolean[] present = new boolean[n];
+        int presentCount = 0;
+        for (int v : edges) {
+            if (!present[v]) {
+                present[v] = true;
+                presentCount++;
+            }
+        }
+        if (n < 2 || presentCount == n) {
+            return new int[0];
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            xs[v] = mesh.x(v);
+            ys[v] = mesh.y(v);
+        }
+        int[] sorted = IndexSort.sortedByXY(new PointSet(xs, ys));
+        IntList pairs = new IntList(2 * (n - presentCount));
+        for (int from = 0, to; from < n; from = to) {
+            int kept = sorted[from];
+            to = from + 1;
+            while (to < n && xs[sorted[to]] == xs[kept] && ys[sorted[to]] == ys[kept]) {
+                to++;
+            }
+            for (int i = from; i < to; i++) {
+                if (present[sorted[i]]) kept = sorted[i];
+            }
+            for (int i = from; i < to; i++) {
+                if (sorted[i] != kept) {
+                    pairs.add(kept);
+                    pairs.add(sorted[i]);
+                }
+            }
+        }
+        return pairs.toArray();
+    }
+
+    private static double squaredDistance(TriangleMesh mesh, int a, int b) {
+        double dx = mesh.x(a) - mesh.x(b);
+        double dy = mesh.y(a) - mesh.y(b);
+        return dx * dx + dy * dy;
+    }
+}
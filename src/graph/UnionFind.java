@@ -0,0 +1,47 @@
+package graph;
+
+// Disjoint sets over 0..n-1 in two int arrays: union by size, path halving on find.
+final class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int sets;
+
+    UnionFind(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        sets = n;
+    }
+
+    int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // False if a and b were already in the same set
+    boolean union(int a, int b) {
+        int ra = find(a), rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        sets--;
+        return true;
+    }
+
+    int setCount() {
+        return sets;
+    }
+}
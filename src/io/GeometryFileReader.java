@@ -0,0 +1,209 @@
+package io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads GeometryFormat files through memory mapping. Opening a file only reads the
+// section headers; points() exposes the coordinates in place without copying, and
+// index sections are copied into int arrays with bulk gets. Files larger than 2 GB
+// are mapped in chunks.
+public class GeometryFileReader implements AutoCloseable {
+    static final int CHUNK_SHIFT = 30;  // 1 GiB mappings, a multiple of every record size used
+
+    private final FileChannel channel;
+    private final List<Section> sections = new ArrayList<>();
+
+    private static final class Section {
+        final int type;
+        final int width;
+        final int componentType;
+        final long recordCount;
+        final long dataOffset;
+
+        Section(int type, int width, int componentType, long recordCount, long dataOffset) {
+            this.type = type;
+            this.width = width;
+            this.componentType = componentType;
+            this.recordCount = recordCount;
+            this.dataOffset = dataOffset;
+        }
+
+        long dataBytes() {
+            return recordCount * width * GeometryFormat.componentBytes(componentType);
+        }
+    }
+
+    private GeometryFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = readAt(0, GeometryFormat.FILE_HEADER_BYTES);
+        if (header.getInt(0) != GeometryFormat.MAGIC) {
+            throw new IOException("Not a geometry file (bad magic number).");
+        }
+        if (header.getInt(4) != GeometryFormat.VERSION) {
+            throw new IOException("Unsupported geometry file version " + header.getInt(4));
+        }
+        int sectionCount = header.getInt(8);
+        long offset = GeometryFormat.FILE_HEADER_BYTES;
+        for (int i = 0; i < sectionCount; i++) {
+            ByteBuffer sectionHeader = readAt(offset, GeometryFormat.SECTION_HEADER_BYTES);
+            int type = sectionHeader.getInt(0);
+            int width = sectionHeader.getInt(4);
+            int componentType = sectionHeader.getInt(8);
+            long recordCount = sectionHeader.getLong(16);
+            if (width <= 0 || recordCount < 0
+                    || (componentType != GeometryFormat.INT32 && componentType != GeometryFormat.FLOAT64)) {
+                throw new IOException("Corrupt section header at offset " + offset);
+            }
+            Section section = new Section(type, width, componentType, recordCount,
+                    offset + GeometryFormat.SECTION_HEADER_BYTES);
+            if (section.dataOffset + section.dataBytes() > channel.size()) {
+                throw new IOException("Section at offset " + offset + " extends past the end of the file.");
+            }
+            sections.add(section);
+            offset = section.dataOffset + GeometryFormat.paddedBytes(section.dataBytes());
+        }
+    }
+
+    public static GeometryFileReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new GeometryFileReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // True if the file starts with the GeometryFormat magic number
+    public static boolean isGeometryFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until four bytes or end of file
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == GeometryFormat.MAGIC;
+        }
+    }
+
+    public boolean hasSection(int type) {
+        return find(type) != null;
+    }
+
+    public long recordCount(int type) {
+        return require(type).recordCount;
+    }
+
+    public int width(int type) {
+        return require(type).width;
+    }
+
+    // Points of the POINTS section, read from the mapping on every access
+    public MappedPointStore points() throws IOException {
+        Section section = find(GeometryFormat.POINTS);
+        if (section == null) {
+            throw new IOException("Not a point file (no POINTS section).");
+        }
+        if (section.width != 2 || section.componentType != GeometryFormat.FLOAT64) {
+            throw new IOException("POINTS section must hold two FLOAT64 components per record.");
+        }
+        if (section.recordCount > Integer.MAX_VALUE) {
+            throw new IOException("Too many points for int indices: " + section.recordCount);
+        }
+        return new MappedPointStore(map(section), (int) section.recordCount);
+    }
+
+    // Copy of an INT32 section, records laid out one after another
+    public int[] readInts(int type) throws IOException {
+        Section section = require(type);
+        if (section.componentType != GeometryFormat.INT32) {
+            throw new IOException("Section " + type + " does not hold INT32 values.");
+        }
+        int[] values = new int[checkedLength(section)];
+        int filled = 0;
+        for (ByteBuffer chunk : map(section)) {
+            int count = chunk.remaining() / 4;
+            chunk.asIntBuffer().get(values, filled, count);
+            filled += count;
+        }
+        return values;
+    }
+
+    // Copy of a FLOAT64 section, records laid out one after another
+    public double[] readDoubles(int type) throws IOException {
+        Section section = require(type);
+        if (section.componentType != GeometryFormat.FLOAT64) {
+            throw new IOException("Section " + type + " does not hold FLOAT64 values.");
+        }
+        double[] values = new double[checkedLength(section)];
+        int filled = 0;
+        for (ByteBuffer chunk : map(section)) {
+            int count = chunk.remaining() / 8;
+            chunk.asDoubleBuffer().get(values, filled, count);
+            filled += count;
+        }
+        return values;
+    }
+
+    // Mappings stay valid after the channel is closed
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer[] map(Section section) throws IOException {
+        long bytes = section.dataBytes();
+        int chunks = (int) ((bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+        ByteBuffer[] result = new ByteBuffer[Math.max(chunks, 1)];
+        if (bytes == 0) {
+            result[0] = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+            return result;
+        }
+        for (int c = 0; c < chunks; c++) {
+            long start = (long) c << CHUNK_SHIFT;
+            long length = Math.min(1L << CHUNK_SHIFT, bytes - start);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, section.dataOffset + start, length);
+            result[c] = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return result;
+    }
+
+    private static int checkedLength(Section section) throws IOException {
+        long length = section.recordCount * section.width;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Section " + section.type + " is too large for an array: " + length);
+        }
+        return (int) length;
+    }
+
+    private Section find(int type) {
+        for (Section section : sections) {
+            if (section.type == type) return section;
+        }
+        return null;
+    }
+
+    private Section require(int type) {
+        Section section = find(type);
+        if (section == null) {
+            throw new IllegalArgumentException("File has no section of type " + type);
+        }
+        return section;
+    }
+
+    private ByteBuffer readAt(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at offset " + (offset + buffer.position()));
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,181 @@
+package io;
+
+import geometry.PointStore;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import triangulation.TriangleMesh;
+import voronoi.VoronoiDiagram;
+
+// Streaming writer for the GeometryFormat layout. Values go through a fixed direct
+// buffer, so memory use does not depend on the amount of data written. Record
+// counts are patched into the section headers when a section ends, which lets a
+// caller write points or indices as they are produced.
+//
+//   try (GeometryFileWriter writer = GeometryFileWriter.create(path)) {
+//       writer.beginSection(GeometryFormat.POINTS, 2, GeometryFormat.FLOAT64);
+//       for (...) writer.writeDouble(x).writeDouble(y);
+//       writer.writeIndices(GeometryFormat.HULL, 1, hull);
+//   }
+public class GeometryFileWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long flushed;  // bytes already handed to the channel
+    private int sectionCount;
+
+    // Open section, -1 if none
+    private long sectionStart = -1;
+    private int sectionWidth;
+    private int sectionComponentType;
+    private long sectionComponents;
+
+    private GeometryFileWriter(FileChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.putInt(GeometryFormat.MAGIC).putInt(GeometryFormat.VERSION).putInt(0).putInt(0);
+    }
+
+    public static GeometryFileWriter create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new GeometryFileWriter(channel);
+    }
+
+    public GeometryFileWriter beginSection(int type, int width, int componentType) throws IOException {
+        GeometryFormat.componentBytes(componentType);
+        if (width <= 0) {
+            throw new IllegalArgumentException("Section width must be positive.");
+        }
+        endSection();
+        ensureRoom(GeometryFormat.SECTION_HEADER_BYTES);
+        sectionStart = position();
+        sectionWidth = width;
+        sectionComponentType = componentType;
+        sectionComponents = 0;
+        buffer.putInt(type).putInt(width).putInt(componentType).putInt(0).putLong(0);
+        return this;
+    }
+
+    public GeometryFileWriter writeInt(int value) throws IOException {
+        checkComponent(GeometryFormat.INT32);
+        ensureRoom(4);
+        buffer.putInt(value);
+        sectionComponents++;
+        return this;
+    }
+
+    public GeometryFileWriter writeDouble(double value) throws IOException {
+        checkComponent(GeometryFormat.FLOAT64);
+        ensureRoom(8);
+        buffer.putDouble(value);
+        sectionComponents++;
+        return this;
+    }
+
+    // Pads the open section and stores its record count in its header
+    public void endSection() throws IOException {
+        if (sectionStart < 0) {
+            return;
+        }
+        if (sectionComponents % sectionWidth != 0) {
+            throw new IllegalStateException("Section ends inside a record: " + sectionComponents
+                    + " components for width " + sectionWidth);
+        }
+        long dataBytes = sectionComponents * GeometryFormat.componentBytes(sectionComponentType);
+        long padding = GeometryFormat.paddedBytes(dataBytes) - dataBytes;
+        ensureRoom((int) padding);
+        for (long i = 0; i < padding; i++) {
+            buffer.put((byte) 0);
+        }
+        patchLong(sectionStart + 16, sectionComponents / sectionWidth);
+        sectionStart = -1;
+        sectionCount++;
+    }
+
+    public void writePoints(PointStore points) throws IOException {
+        beginSection(GeometryFormat.POINTS, 2, GeometryFormat.FLOAT64);
+        for (int i = 0; i < points.size(); i++) {
+            ensureRoom(16);
+            buffer.putDouble(points.x(i)).putDouble(points.y(i));
+        }
+        sectionComponents = 2L * points.size();
+        endSection();
+    }
+
+    public void writeIndices(int type, int width, int[] values) throws IOException {
+        beginSection(type, width, GeometryFormat.INT32);
+        for (int value : values) {
+            ensureRoom(4);
+            buffer.putInt(value);
+        }
+        sectionComponents = values.length;
+        endSection();
+    }
+
+    public void writeMesh(TriangleMesh mesh) throws IOException {
+        writeIndices(GeometryFormat.TRIANGLES, 3, mesh.getTriangles());
+        writeIndices(GeometryFormat.HALFEDGES, 3, mesh.getHalfedges());
+    }
+
+    public void writeVoronoi(VoronoiDiagram voronoi) throws IOException {
+        beginSection(GeometryFormat.VORONOI_SEGMENTS, 4, GeometryFormat.FLOAT64);
+        for (int i = 0; i < voronoi.edgeCount(); i++) {
+            writeDouble(voronoi.x1(i)).writeDouble(voronoi.y1(i)).writeDouble(voronoi.x2(i)).writeDouble(voronoi.y2(i));
+        }
+        beginSection(GeometryFormat.VORONOI_SITES, 3, GeometryFormat.INT32);
+        for (int i = 0; i < voronoi.edgeCount(); i++) {
+            writeInt(voronoi.siteA(i)).writeInt(voronoi.siteB(i)).writeInt(voronoi.isRay(i) ? 1 : 0);
+        }
+        endSection();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            endSection();
+            flush();
+            ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, sectionCount);
+            channel.write(count, 8);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private long position() {
+        return flushed + buffer.position();
+    }
+
+    private void checkComponent(int componentType) {
+        if (sectionStart < 0 || sectionComponentType != componentType) {
+            throw new IllegalStateException("No open section with that component type.");
+        }
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Overwrites a value that may already have been flushed
+    private void patchLong(long offset, long value) throws IOException {
+        if (offset >= flushed) {
+            buffer.putLong((int) (offset - flushed), value);
+            return;
+        }
+        ByteBuffer patch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value);
+        channel.write(patch, offset);
+    }
+}
@@ -0,0 +1,50 @@
+package io;
+
+// Binary geometry file layout, all values little-endian:
+//
+//   file header (16 bytes)     int magic "GEOM", int version, int sectionCount, int reserved
+//   section header (24 bytes)  int type, int width, int componentType, int reserved, long recordCount
+//   section data               recordCount * width components, padded to a multiple of 8 bytes
+//
+// Sections follow each other in the order they were written. POINTS holds the
+// coordinates interleaved (x0, y0, x1, y1, ...), so a reader can map it and access
+// point i in place, and a writer can stream points without knowing their count.
+public final class GeometryFormat {
+    public static final int MAGIC = 'G' | 'E' << 8 | 'O' << 16 | 'M' << 24;
+    public static final int VERSION = 1;
+
+    public static final int FILE_HEADER_BYTES = 16;
+    public static final int SECTION_HEADER_BYTES = 24;
+
+    public static final int INT32 = 1;
+    public static final int FLOAT64 = 2;
+
+    // Section types, with their width and component type
+    public static final int POINTS = 1;            // 2 x FLOAT64: x, y
+    public static final int HULL = 2;              // 1 x INT32: hull vertex, counter-clockwise
+    public static final int TRIANGLES = 3;         // 3 x INT32: vertices, counter-clockwise
+    public static final int HALFEDGES = 4;         // 3 x INT32: twin half-edge per triangle side, -1 on the hull
+    public static final int EDGES = 5;             // 2 x INT32: edge end points
+    public static final int VORONOI_SEGMENTS = 6;  // 4 x FLOAT64: x1, y1, x2, y2
+    public static final int VORONOI_SITES = 7;     // 3 x INT32: siteA, siteB, ray flag
+    public static final int NEIGHBOURS = 8;        // k x INT32: nearest point indices of one query
+    public static final int LOCATIONS = 9;         // 1 x INT32: triangle containing one query, -1 outside the hull
+
+    private GeometryFormat() {
+    }
+
+    static int componentBytes(int componentType) {
+        switch (componentType) {
+            case INT32:
+                return 4;
+            case FLOAT64:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unknown component type " + componentType);
+        }
+    }
+
+    static long paddedBytes(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
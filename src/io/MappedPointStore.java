@@ -0,0 +1,52 @@
+package io;
+
+import geometry.PointSet;
+import geometry.PointStore;
+import java.nio.ByteBuffer;
+
+// Points read in place from the mapped POINTS section of a geometry file. Point i
+// lives in chunk i >> 26 at byte (i & (2^26 - 1)) * 16, since every chunk holds
+// 2^30 bytes of interleaved (x, y) pairs.
+public class MappedPointStore implements PointStore {
+    private static final int POINT_SHIFT = GeometryFileReader.CHUNK_SHIFT - 4;
+    private static final int POINT_MASK = (1 << POINT_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final int size;
+
+    MappedPointStore(ByteBuffer[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double x(int index) {
+        return chunks[index >>> POINT_SHIFT].getDouble((index & POINT_MASK) << 4);
+    }
+
+    @Override
+    public double y(int index) {
+        return chunks[index >>> POINT_SHIFT].getDouble(((index & POINT_MASK) << 4) + 8);
+    }
+
+    // Heap copy for the algorithms, which work on coordinate arrays
+    public PointSet toPointSet() {
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        int base = 0;
+        for (ByteBuffer chunk : chunks) {
+            int count = Math.min(chunk.capacity() >>> 4, size - base);
+            for (int i = 0; i < count; i++) {
+                xs[base + i] = chunk.getDouble(i << 4);
+                ys[base + i] = chunk.getDouble((i << 4) + 8);
+            }
+            base += count;
+        }
+        return new PointSet(xs, ys);
+    }
+}
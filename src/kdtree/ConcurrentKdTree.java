@@ -0,0 +1,343 @@
+package kdtree;
+
+import geometry.IntList;
+import geometry.PointSet;
+import geometry.PointStore;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Nearest-neighbour index that is queried by many threads while it is rebuilt in the
+// background. Readers take the current Snapshot from an atomic reference and never
+// block: a snapshot is immutable, and a new tree is only published once it is built.
+//
+// Points inserted one at a time go to a delta buffer that queries scan linearly next
+// to the tree. Once it holds more than deltaLimit points, the tree is rebuilt with
+// them on the rebuild executor; inserts made meanwhile stay in the delta, and wait
+// (only writers ever do) once it grows past a few times the limit. The delta
+// arrays are append-only and each snapshot records how much of them it sees, so an
+// insert publishes a new snapshot without copying the buffer.
+//
+// Point indices follow insertion order within a generation: the points given to
+// replace() keep their indices and inserted points are numbered after them. A
+// replace() starts a new generation once its tree is built; points inserted after
+// the call are carried over to it.
+//
+// Writers (replace, insert, rebuild) are serialized by a lock that readers never take.
+public class ConcurrentKdTree implements AutoCloseable {
+    public static final int DEFAULT_DELTA_LIMIT = 1024;
+    private static final int MAX_DELTA_FACTOR = 4;  // inserts wait beyond this many times the limit
+
+    public static final class Snapshot {
+        private final FlatKdTree tree;
+        private final int baseCount;
+        private final double[] deltaXs;  // shared with later snapshots, read below deltaCount only
+        private final double[] deltaYs;
+        private final int deltaCount;
+        private final long generation;
+
+        private Snapshot(FlatKdTree tree, double[] deltaXs, double[] deltaYs, int deltaCount, long generation) {
+            this.tree = tree;
+            this.baseCount = tree.size();
+            this.deltaXs = deltaXs;
+            this.deltaYs = deltaYs;
+            this.deltaCount = deltaCount;
+            this.generation = generation;
+        }
+
+        public int size() {
+            return baseCount + deltaCount;
+        }
+
+        // Points still in the delta buffer, scanned by every query
+        public int deltaSize() {
+            return deltaCount;
+        }
+
+        public long generation() {
+            return generation;
+        }
+
+        public double x(int index) {
+            return index < baseCount ? tree.getPoints().x(index) : deltaXs[index - baseCount];
+        }
+
+        public double y(int index) {
+            return index < baseCount ? tree.getPoints().y(index) : deltaYs[index - baseCount];
+        }
+
+        // Index of the point closest to (x, y), or -1 when empty
+        public int nearest(double x, double y) {
+            int best = tree.nearest(x, y);
+            double bestDistance = best < 0 ? Double.POSITIVE_INFINITY : distanceSquared(best, x, y);
+            for (int i = 0; i < deltaCount; i++) {
+                double dx = deltaXs[i] - x;
+                double dy = deltaYs[i] - y;
+                double d = dx * dx + dy * dy;
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = baseCount + i;
+                }
+            }
+            return best;
+        }
+
+        // Up to k point indices ordered by increasing distance to (x, y)
+        public int[] kNearest(double x, double y, int k) {
+            int[] fromTree = tree.kNearest(x, y, k);
+            if (deltaCount == 0) {
+                return fromTree;
+            }
+            NeighbourHeap heap = new NeighbourHeap(Math.min(k, size()));
+            for (int index : fromTree) {
+                heap.offer(index, distanceSquared(index, x, y));
+            }
+            for (int i = 0; i < deltaCount; i++) {
+                double dx = deltaXs[i] - x;
+                double dy = deltaYs[i] - y;
+                heap.offer(baseCount + i, dx * dx + dy * dy);
+            }
+            return heap.toSortedIndices();
+        }
+
+        // Indices of all points within distance r of (x, y)
+        public int[] radiusSearch(double x, double y, double r) {
+            int[] fromTree = tree.radiusSearch(x, y, r);
+            if (deltaCount == 0) {
+                return fromTree;
+            }
+            IntList result = new IntList();
+            for (int index : fromTree) {
+                result.add(index);
+            }
+            double r2 = r * r;
+            for (int i = 0; i < deltaCount; i++) {
+                double dx = deltaXs[i] - x;
+                double dy = deltaYs[i] - y;
+                if (dx * dx + dy * dy <= r2) result.add(baseCount + i);
+            }
+            return result.toArray();
+        }
+
+        private double distanceSquared(int index, double x, double y) {
+            double dx = x(index) - x;
+            double dy = y(index) - y;
+            return dx * dx + dy * dy;
+        }
+    }
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int deltaLimit;
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private long latestGeneration;   // generation of the newest replace() call
+    private int replaceMark;         // delta count of the current snapshot at that call
+    private CompletableFuture<Snapshot> pendingMerge;
+
+    public ConcurrentKdTree() {
+        this(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kdtree-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }), true, DEFAULT_DELTA_LIMIT);
+    }
+
+    // The executor is not shut down by close()
+    public ConcurrentKdTree(ExecutorService executor, int deltaLimit) {
+        this(executor, false, deltaLimit);
+    }
+
+    private ConcurrentKdTree(ExecutorService executor, boolean ownsExecutor, int deltaLimit) {
+        if (deltaLimit < 0) {
+            throw new IllegalArgumentException("Delta limit must not be negative.");
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.deltaLimit = deltaLimit;
+        current.set(new Snapshot(new FlatKdTree(new PointSet(0)), new double[16], new double[16], 0, 0));
+    }
+
+    // The latest published state; never blocks
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public int nearest(double x, double y) {
+        return snapshot().nearest(x, y);
+    }
+
+    public int[] kNearest(double x, double y, int k) {
+        return snapshot().kNearest(x, y, k);
+    }
+
+    public int[] radiusSearch(double x, double y, double r) {
+        return snapshot().radiusSearch(x, y, r);
+    }
+
+    // Replaces all points by a copy of points, taken before returning, so the caller
+    // may change its store right away. Completes with the snapshot that is current
+    // once the new tree is built: its own, or a newer one if replace() was called
+    // again in the meantime.
+    public CompletableFuture<Snapshot> replace(PointStore points) {
+        PointSet copy = PointSet.copyOf(points);
+        synchronized (lock) {
+            // Bumped first: a build that finishes at once publishes from this thread
+            long generation = ++latestGeneration;
+            replaceMark = current.get().deltaCount;
+            CompletableFuture<Snapshot> replacement;
+            try {
+                replacement = CompletableFuture.supplyAsync(() -> new FlatKdTree(copy), executor)
+                        .thenApply(tree -> publishReplacement(tree, generation));
+            } catch (RuntimeException e) {
+                latestGeneration = current.get().generation;
+                throw e;
+            }
+            replacement.whenComplete((snapshot, failure) -> {
+                synchronized (lock) {
+                    // A failed build leaves the current generation in place
+                    if (failure != null && generation == latestGeneration) {
+                        latestGeneration = current.get().generation;
+                    }
+                    lock.notifyAll();
+                }
+            });
+            return replacement;
+        }
+    }
+
+    public void insert(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("Point coordinates must be finite: (" + x + ", " + y + ")");
+        }
+        synchronized (lock) {
+            // Queries scan the delta, so a writer faster than the rebuilds waits for them
+            while (current.get().deltaCount >= deltaLimit * MAX_DELTA_FACTOR + 1 && awaitRebuild()) {
+                // re-check after every published rebuild or replacement
+            }
+            Snapshot snapshot = current.get();
+            double[] xs = snapshot.deltaXs, ys = snapshot.deltaYs;
+            int count = snapshot.deltaCount;
+            if (count == xs.length) {
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
+            }
+            // Slots at or beyond count are invisible to every published snapshot
+            xs[count] = x;
+            ys[count] = y;
+            current.set(new Snapshot(snapshot.tree, xs, ys, count + 1, snapshot.generation));
+            if (count + 1 > deltaLimit) {
+                scheduleMerge();
+            }
+        }
+    }
+
+    // Rebuilds the tree with the points in the delta buffer now, unless a rebuild is
+    // already running; completes with the snapshot current after that rebuild
+    public CompletableFuture<Snapshot> rebuild() {
+        synchronized (lock) {
+            if (pendingMerge != null) {
+                return pendingMerge;
+            }
+            CompletableFuture<Snapshot> merge = scheduleMerge();
+            return merge != null ? merge : CompletableFuture.completedFuture(current.get());
+        }
+    }
+
+    // Waits until the running rebuild or replacement completes; false if there is
+    // none or the thread is interrupted. Called with the lock held.
+    private boolean awaitRebuild() {
+        boolean replacing = latestGeneration != current.get().generation;
+        if (!replacing && pendingMerge == null && scheduleMerge() == null) {
+            return false;
+        }
+        try {
+            lock.wait();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Null if nothing is to merge or a merge is already running
+    private CompletableFuture<Snapshot> scheduleMerge() {
+        Snapshot base = current.get();
+        if (pendingMerge != null || base.deltaCount == 0 || base.generation != latestGeneration) {
+            return null;
+        }
+        CompletableFuture<Snapshot> merge = CompletableFuture
+                .supplyAsync(() -> new FlatKdTree(merged(base)), executor)
+                .thenApply(tree -> publishMerge(tree, base));
+        pendingMerge = merge;
+        merge.whenComplete((snapshot, failure) -> {
+            synchronized (lock) {
+                pendingMerge = null;
+                // Inserts made during the merge may already call for the next one
+                if (failure == null && current.get().deltaCount > deltaLimit) {
+                    scheduleMerge();
+                }
+                lock.notifyAll();
+            }
+        });
+        return merge;
+    }
+
+    // The base points followed by the delta points of a snapshot
+    private static PointSet merged(Snapshot snapshot) {
+        PointSet basePoints = snapshot.tree.getPoints();
+        int n = snapshot.baseCount;
+        double[] xs = Arrays.copyOf(basePoints.xArray(), n + snapshot.deltaCount);
+        double[] ys = Arrays.copyOf(basePoints.yArray(), n + snapshot.deltaCount);
+        System.arraycopy(snapshot.deltaXs, 0, xs, n, snapshot.deltaCount);
+        System.arraycopy(snapshot.deltaYs, 0, ys, n, snapshot.deltaCount);
+        return new PointSet(xs, ys);
+    }
+
+    private Snapshot publishMerge(FlatKdTree tree, Snapshot base) {
+        synchronized (lock) {
+            Snapshot latest = current.get();
+            if (base.generation != latestGeneration) {
+                return latest;  // a replace() is on its way
+            }
+            // Only inserts have been published since base; keep the ones it did not see
+            Snapshot merged = carryOver(tree, latest, base.deltaCount, latest.generation);
+            current.set(merged);
+            return merged;
+        }
+    }
+
+    private Snapshot publishReplacement(FlatKdTree tree, long generation) {
+        synchronized (lock) {
+            Snapshot latest = current.get();
+            if (generation != latestGeneration) {
+                return latest;
+            }
+            Snapshot replaced = carryOver(tree, latest, replaceMark, generation);
+            current.set(replaced);
+            return replaced;
+        }
+    }
+
+    // Snapshot of the new tree with the delta points of latest from index from on
+    private static Snapshot carryOver(FlatKdTree tree, Snapshot latest, int from, long generation) {
+        int remaining = latest.deltaCount - from;
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(remaining, 1)) * 2);
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        System.arraycopy(latest.deltaXs, from, xs, 0, remaining);
+        System.arraycopy(latest.deltaYs, from, ys, 0, remaining);
+        return new Snapshot(tree, xs, ys, remaining, generation);
+    }
+}
@@ -0,0 +1,394 @@
+package kdtree;
+
+import geometry.BoundingBox;
+import geometry.IndexSort;
+import geometry.IntList;
+import geometry.PointSet;
+import geometry.PointStore;
+import geometry.Trace;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// k-d tree stored implicitly in primitive arrays, for large point sets. The tree is
+// complete: node i has children 2i + 1 and 2i + 2, every internal node splits its
+// range of points at the middle position, and the leaves, all on the last level,
+// hold buckets of at most bucketSize points. Node ranges follow from the shape, so
+// an internal node only stores its split value and axis (the wider side of its
+// points' bounding box), and a leaf stores nothing.
+//
+// The coordinates are copied in tree order, so a bucket is scanned from two
+// contiguous runs of doubles. Build and queries use explicit stacks instead of
+// recursion. Point indices and results are the same as for KdTree, up to the order
+// of equally distant points. The tree is read-only once built, so any number of
+// threads may query it; the batch kNearest spreads a query array over a pool.
+public class FlatKdTree {
+    public static final int DEFAULT_BUCKET_SIZE = 16;
+    private static final int BATCH_CHUNK = 1024;            // queries per fork-join task
+    private static final int PARALLEL_SORT_CUTOFF = 1 << 14;
+
+    private final PointSet points;
+    private final int size;
+    private final int depth;          // levels of internal nodes
+    private final int internalCount;  // nodes [0, internalCount) are internal
+    private final double[] splits;
+    private final byte[] axes;        // 0 splits on x, 1 on y
+    private final double[] xs;        // coordinates in tree order
+    private final double[] ys;
+    private final int[] indices;      // tree order to index in points
+
+    public FlatKdTree(PointSet points) {
+        this(points, DEFAULT_BUCKET_SIZE);
+    }
+
+    @SuppressWarnings("try")
+    public FlatKdTree(PointSet points, int bucketSize) {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("Bucket size must be positive.");
+        }
+        this.points = points;
+        this.size = points.size();
+        int levels = 0;
+        while (levels < 30 && ceilDiv(size, 1 << levels) > bucketSize) {
+            levels++;
+        }
+        this.depth = levels;
+        this.internalCount = (1 << levels) - 1;
+        this.splits = new double[internalCount];
+        this.axes = new byte[internalCount];
+        this.indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        try (Trace.Scope scope = Trace.begin("FlatKdTree.build")) {
+            build();
+        }
+        this.xs = new double[size];
+        this.ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points.x(indices[i]);
+            ys[i] = points.y(indices[i]);
+        }
+    }
+
+    public PointSet getPoints() {
+        return points;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Partitions indices level by level around each node's middle position. The
+    // stack holds (node, from, to) triples; depth first, it never holds more than one
+    // pending sibling per level.
+    private void build() {
+        double[] px = points.xArray(), py = points.yArray();
+        int[] stack = new int[3 * (depth + 2)];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = 0;
+        stack[top++] = size;
+        while (top > 0) {
+            int to = stack[--top], from = stack[--top], node = stack[--top];
+            if (node >= internalCount) continue;
+            Trace.nodeVisited();
+
+            double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                int index = indices[i];
+                double x = px[index], y = py[index];
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+            }
+            int axis = maxY - minY > maxX - minX ? 1 : 0;
+            double[] keys = axis == 0 ? px : py;
+            int mid = from + (to - from) / 2;
+            KdTree.select(keys, indices, from, to, mid);
+            axes[node] = (byte) axis;
+            // Empty ranges (fewer points than leaves) split at +inf and send queries left
+            splits[node] = mid < to ? keys[indices[mid]] : Double.POSITIVE_INFINITY;
+
+            stack[top++] = 2 * node + 2;
+            stack[top++] = mid;
+            stack[top++] = to;
+            stack[top++] = 2 * node + 1;
+            stack[top++] = from;
+            stack[top++] = mid;
+        }
+    }
+
+    // Index of the point closest to (x, y), or -1 for an empty tree
+    public int nearest(double x, double y) {
+        if (size == 0) {
+            return -1;
+        }
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        Stack stack = new Stack(depth);
+        stack.push(0, 0, size, 0);
+        while (stack.top > 0) {
+            int s = --stack.top;
+            if (stack.bounds[s] >= bestDistance) continue;
+            int node = stack.nodes[s], from = stack.froms[s], to = stack.tos[s];
+            Trace.nodeVisited();
+            if (node >= internalCount) {
+                for (int i = from; i < to; i++) {
+                    double dx = xs[i] - x;
+                    double dy = ys[i] - y;
+                    double d = dx * dx + dy * dy;
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = i;
+                    }
+                }
+            } else {
+                pushChildren(stack, node, from, to, x, y, stack.bounds[s]);
+            }
+        }
+        return best < 0 ? -1 : indices[best];
+    }
+
+    // Up to k point indices ordered by increasing distance to (x, y)
+    public int[] kNearest(double x, double y, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        NeighbourHeap heap = new NeighbourHeap(Math.min(k, size));
+        if (heap.capacity > 0) {
+            kNearest(x, y, Double.POSITIVE_INFINITY, heap, new Stack(depth));
+        }
+        return heap.toSortedIndices();
+    }
+
+    // Batch k-nearest search. Row q of neighbours and distances (entries q * k up to
+    // q * k + k) receives the up to k points within maxDistance of query q, nearest
+    // first, padded with -1 and +infinity. The queries are answered in Morton order,
+    // in chunks spread over the pool (on the calling thread when pool is null), and
+    // nothing is allocated per query.
+    @SuppressWarnings("try")
+    public void kNearest(PointStore queries, int k, double maxDistance, int[] neighbours, double[] distances,
+                         ForkJoinPool pool) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        if (!(maxDistance >= 0)) {
+            throw new IllegalArgumentException("Maximum distance must not be negative.");
+        }
+        long cells = (long) queries.size() * k;
+        if (neighbours.length < cells || distances.length < cells) {
+            throw new IllegalArgumentException("Result arrays need " + cells + " entries.");
+        }
+        try (Trace.Scope scope = Trace.begin("FlatKdTree.kNearestBatch")) {
+            if (pool == null) {
+                int[] order = IndexSort.mortonOrder(queries);
+                new BatchTask(queries, order, 0, order.length, k, maxDistance * maxDistance, neighbours, distances)
+                        .answer();
+            } else {
+                int[] order = IndexSort.mortonOrder(queries, pool, PARALLEL_SORT_CUTOFF);
+                pool.invoke(new BatchTask(queries, order, 0, order.length, k, maxDistance * maxDistance,
+                        neighbours, distances));
+            }
+        }
+    }
+
+    public void kNearest(PointStore queries, int k, int[] neighbours, double[] distances, ForkJoinPool pool) {
+        kNearest(queries, k, Double.POSITIVE_INFINITY, neighbours, distances, pool);
+    }
+
+    // Offers the points within squared distance r2 of (x, y) to the heap, which must
+    // have room for at least one point
+    private void kNearest(double x, double y, double r2, NeighbourHeap heap, Stack stack) {
+        stack.top = 0;
+        stack.push(0, 0, size, 0);
+        while (stack.top > 0) {
+            int s = --stack.top;
+            double bound = stack.bounds[s];
+            if (bound >= heap.worstDistance() || bound > r2) continue;
+            int node = stack.nodes[s], from = stack.froms[s], to = stack.tos[s];
+            Trace.nodeVisited();
+            if (node >= internalCount) {
+                for (int i = from; i < to; i++) {
+                    double dx = xs[i] - x;
+                    double dy = ys[i] - y;
+                    double d = dx * dx + dy * dy;
+                    if (d <= r2) heap.offer(indices[i], d);
+                }
+            } else {
+                pushChildren(stack, node, from, to, x, y, bound);
+            }
+        }
+    }
+
+    // Far child first so the near one is popped next. A child's bound is the squared
+    // distance from the query to the split line, or the parent's bound if larger.
+    private void pushChildren(Stack stack, int node, int from, int to, double x, double y, double bound) {
+        int mid = from + (to - from) / 2;
+        double diff = (axes[node] == 0 ? x : y) - splits[node];
+        double farBound = Math.max(bound, diff * diff);
+        if (diff < 0) {
+            stack.push(2 * node + 2, mid, to, farBound);
+            stack.push(2 * node + 1, from, mid, bound);
+        } else {
+            stack.push(2 * node + 1, from, mid, farBound);
+            stack.push(2 * node + 2, mid, to, bound);
+        }
+    }
+
+    // Indices of all points within distance r of (x, y)
+    public int[] radiusSearch(double x, double y, double r) {
+        if (r < 0) {
+            throw new IllegalArgumentException("Radius must not be negative.");
+        }
+        double r2 = r * r;
+        IntList result = new IntList();
+        Stack stack = new Stack(depth);
+        stack.push(0, 0, size, 0);
+        while (stack.top > 0) {
+            int s = --stack.top;
+            if (stack.bounds[s] > r2) continue;
+            int node = stack.nodes[s], from = stack.froms[s], to = stack.tos[s];
+            Trace.nodeVisited();
+            if (node >= internalCount) {
+                for (int i = from; i < to; i++) {
+                    double dx = xs[i] - x;
+                    double dy = ys[i] - y;
+                    if (dx * dx + dy * dy <= r2) result.add(indices[i]);
+                }
+            } else {
+                pushChildren(stack, node, from, to, x, y, stack.bounds[s]);
+            }
+        }
+        return result.toArray();
+    }
+
+    // Indices of all points inside the (closed) rectangle
+    public int[] rangeSearch(BoundingBox rect) {
+        IntList result = new IntList();
+        Stack stack = new Stack(depth);
+        stack.push(0, 0, size, 0);
+        while (stack.top > 0) {
+            int s = --stack.top;
+            int node = stack.nodes[s], from = stack.froms[s], to = stack.tos[s];
+            Trace.nodeVisited();
+            if (node >= internalCount) {
+                for (int i = from; i < to; i++) {
+                    if (rect.contains(xs[i], ys[i])) result.add(indices[i]);
+                }
+                continue;
+            }
+            int mid = from + (to - from) / 2;
+            double split = splits[node];
+            boolean xAxis = axes[node] == 0;
+            if ((xAxis ? rect.getMinX() : rect.getMinY()) <= split) {
+                stack.push(2 * node + 1, from, mid, 0);
+            }
+            if ((xAxis ? rect.getMaxX() : rect.getMaxY()) >= split) {
+                stack.push(2 * node + 2, mid, to, 0);
+            }
+        }
+        return result.toArray();
+    }
+
+    // Answers the queries order[from, to) with one heap and stack; ranges larger than
+    // BATCH_CHUNK are split in two and the halves forked
+    private final class BatchTask extends RecursiveAction {
+        private final PointStore queries;
+        private final int[] order;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final double r2;
+        private final int[] neighbours;
+        private final double[] distances;
+        private final Trace.Scope scope = Trace.current();  // of the thread creating the task
+
+        BatchTask(PointStore queries, int[] order, int from, int to, int k, double r2,
+                  int[] neighbours, double[] distances) {
+            this.queries = queries;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.r2 = r2;
+            this.neighbours = neighbours;
+            this.distances = distances;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected void compute() {
+            try (Trace.Scope attached = Trace.attach(scope)) {
+                split();
+            }
+        }
+
+        private void split() {
+            if (to - from <= BATCH_CHUNK) {
+                answer();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(queries, order, from, mid, k, r2, neighbours, distances);
+            left.fork();
+            new BatchTask(queries, order, mid, to, k, r2, neighbours, distances).compute();
+            left.join();
+        }
+
+        void answer() {
+            NeighbourHeap heap = new NeighbourHeap(Math.min(k, size));
+            Stack stack = new Stack(depth);
+            for (int i = from; i < to; i++) {
+                int q = order[i];
+                int row = q * k;
+                int found = 0;
+                if (heap.capacity > 0) {
+                    heap.clear();
+                    kNearest(queries.x(q), queries.y(q), r2, heap, stack);
+                    heap.sort();
+                    found = heap.size;
+                    for (int j = 0; j < found; j++) {
+                        neighbours[row + j] = heap.indices[j];
+                        distances[row + j] = Math.sqrt(heap.distances[j]);
+                    }
+                }
+                for (int j = found; j < k; j++) {
+                    neighbours[row + j] = -1;
+                    distances[row + j] = Double.POSITIVE_INFINITY;
+                }
+            }
+        }
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (int) (((long) a + b - 1) / b);
+    }
+
+    // Pending nodes of a depth-first query: each pop pushes at most two, so the stack
+    // never holds more than one entry per level plus the two just pushed
+    private static final class Stack {
+        final int[] nodes;
+        final int[] froms;
+        final int[] tos;
+        final double[] bounds;
+        int top;
+
+        Stack(int depth) {
+            int capacity = depth + 2;
+            nodes = new int[capacity];
+            froms = new int[capacity];
+            tos = new int[capacity];
+            bounds = new double[capacity];
+        }
+
+        void push(int node, int from, int to, double bound) {
+            nodes[top] = node;
+            froms[top] = from;
+            tos[top] = to;
+            bounds[top] = bound;
+            top++;
+        }
+    }
+}
@@ -1,58 +1,220 @@
 package kdtree;
 
-import java.awt.Point;
-import java.util.ArrayList;
+import geometry.BoundingBox;
+import geometry.IntList;
+import geometry.PointSet;
+import geometry.Trace;
 
 public class KdTree {
     public static class Node {
-        public Point point;  
-        public Node left;   
-        public Node right;   
-        int depth;          
+        public int index;    // position of the point in the source point set
+        public Node left;
+        public Node right;
+        int depth;
 
-        public Node(Point point, int depth) {
-            this.point = point;
+        public Node(int index, int depth) {
+            this.index = index;
             this.depth = depth;
-            this.left = null;
-            this.right = null;
         }
     }
 
-    public Node root;
+    private final Node root;
+    private final PointSet points;
 
-    public KdTree(ArrayList<Point> points) {
-        this.root = buildKDTree(points, 0);
+    @SuppressWarnings("try")
+    public KdTree(PointSet points) {
+        this.points = points;
+        int[] indices = new int[points.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        try (Trace.Scope scope = Trace.begin("KdTree.build")) {
+            this.root = buildKDTree(indices, 0, indices.length, 0);
+        }
     }
 
-    private Node buildKDTree(ArrayList<Point> points, int depth) {
-        if (points.isEmpty()) {
-            System.out.println("No points left to process. Returning null.");
+    public Node getRoot() {
+        return root;
+    }
+
+    public PointSet getPoints() {
+        return points;
+    }
+
+    // Builds the subtree over indices[from, to); the range is partitioned in place
+    // around its median, so every level costs linear time.
+    private Node buildKDTree(int[] indices, int from, int to, int depth) {
+        if (from >= to) {
             return null;
         }
 
-        int axis = depth % 2; 
-        System.out.println("Depth: " + depth + " Axis: " + (axis == 0 ? "x" : "y"));
+        int axis = depth % 2;
+        double[] keys = axis == 0 ? points.xArray() : points.yArray();
+        int medianIndex = from + (to - from) / 2;
+        select(keys, indices, from, to, medianIndex);
 
-        points.sort((p1, p2) -> axis == 0 ? Integer.compare(p1.x, p2.x) : Integer.compare(p1.y, p2.y));
-        System.out.println("Sorted points: " + points);
+        Node node = new Node(indices[medianIndex], depth);
+        Trace.nodeVisited();
+        if (Trace.ENABLED) {
+            Trace.event("KdTree", "Median point at depth " + depth + " (axis " + (axis == 0 ? "x" : "y") + "): " + indices[medianIndex]);
+        }
 
-        int medianIndex = points.size() / 2;
-        Point medianPoint = points.get(medianIndex);
-        System.out.println("Median point at depth " + depth + ": " + medianPoint);
+        node.left = buildKDTree(indices, from, medianIndex, depth + 1);
+        node.right = buildKDTree(indices, medianIndex + 1, to, depth + 1);
 
-        Node node = new Node(medianPoint, depth);
+        return node;
+    }
 
-        ArrayList<Point> leftPoints = new ArrayList<>(points.subList(0, medianIndex)); 
-        ArrayList<Point> rightPoints = new ArrayList<>(points.subList(medianIndex + 1, points.size())); 
+    // Quickselect: afterwards keys of indices[from, k) <= indices[k] <= indices(k, to)
+    static void select(double[] keys, int[] indices, int from, int to, int k) {
+        int lo = from, hi = to - 1;
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            // Median of three moved to hi as the pivot
+            if (keys[indices[mid]] < keys[indices[lo]]) swap(indices, mid, lo);
+            if (keys[indices[hi]] < keys[indices[lo]]) swap(indices, hi, lo);
+            if (keys[indices[mid]] < keys[indices[hi]]) swap(indices, mid, hi);
+            double pivot = keys[indices[hi]];
+
+            int store = lo;
+            for (int i = lo; i < hi; i++) {
+                if (keys[indices[i]] < pivot) {
+                    swap(indices, i, store++);
+                }
+            }
+            swap(indices, store, hi);
+
+            // Skip over a run of keys equal to the pivot so duplicates do not degrade
+            int equalEnd = store;
+            for (int i = store + 1; i <= hi; i++) {
+                if (keys[indices[i]] == pivot) {
+                    swap(indices, i, ++equalEnd);
+                }
+            }
+
+            if (k < store) {
+                hi = store - 1;
+            } else if (k > equalEnd) {
+                lo = equalEnd + 1;
+            } else {
+                return;
+            }
+        }
+    }
 
-        System.out.println("Left points: " + leftPoints);
-        System.out.println("Right points: " + rightPoints);
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
 
-        node.left = buildKDTree(leftPoints, depth + 1);  
-        node.right = buildKDTree(rightPoints, depth + 1); 
+    // Index of the point closest to (x, y), or -1 for an empty tree
+    public int nearest(double x, double y) {
+        int[] result = kNearest(x, y, 1);
+        return result.length == 0 ? -1 : result[0];
+    }
 
-        return node;  
+    // Up to k point indices ordered by increasing distance to (x, y)
+    public int[] kNearest(double x, double y, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        NeighbourHeap heap = new NeighbourHeap(Math.min(k, points.size()));
+        if (heap.capacity > 0) {
+            kNearest(root, x, y, heap);
+        }
+        return heap.toSortedIndices();
     }
 
-}
+    private void kNearest(Node node, double x, double y, NeighbourHeap heap) {
+        if (node == null) return;
+        Trace.nodeVisited();
+        int index = node.index;
+        double dx = points.x(index) - x;
+        double dy = points.y(index) - y;
+        heap.offer(index, dx * dx + dy * dy);
+
+        double diff = (node.depth % 2 == 0) ? x - points.x(index) : y - points.y(index);
+        kNearest(diff < 0 ? node.left : node.right, x, y, heap);
+        // Only descend into the far side if the splitting line is closer than the worst kept neighbour
+        if (diff * diff < heap.worstDistance()) {
+            kNearest(diff < 0 ? node.right : node.left, x, y, heap);
+        }
+    }
 
+    // Indices of all points inside the (closed) rectangle
+    public int[] rangeSearch(BoundingBox rect) {
+        IntList result = new IntList();
+        rangeSearch(root, rect, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, result);
+        return result.toArray();
+    }
+
+    // The cell of a node is [minX, maxX] x [minY, maxY]; cells inside the rectangle are
+    // reported without further tests and disjoint cells are skipped.
+    private void rangeSearch(Node node, BoundingBox rect, double minX, double minY,
+                             double maxX, double maxY, IntList result) {
+        if (node == null) return;
+        if (minX > rect.getMaxX() || maxX < rect.getMinX() || minY > rect.getMaxY() || maxY < rect.getMinY()) {
+            return;
+        }
+        if (minX >= rect.getMinX() && maxX <= rect.getMaxX() && minY >= rect.getMinY() && maxY <= rect.getMaxY()) {
+            collect(node, result);
+            return;
+        }
+        Trace.nodeVisited();
+        double px = points.x(node.index), py = points.y(node.index);
+        if (rect.contains(px, py)) {
+            result.add(node.index);
+        }
+        if (node.depth % 2 == 0) {
+            rangeSearch(node.left, rect, minX, minY, px, maxY, result);
+            rangeSearch(node.right, rect, px, minY, maxX, maxY, result);
+        } else {
+            rangeSearch(node.left, rect, minX, minY, maxX, py, result);
+            rangeSearch(node.right, rect, minX, py, maxX, maxY, result);
+        }
+    }
+
+    // Indices of all points within distance r of (x, y)
+    public int[] radiusSearch(double x, double y, double r) {
+        if (r < 0) {
+            throw new IllegalArgumentException("Radius must not be negative.");
+        }
+        IntList result = new IntList();
+        radiusSearch(root, x, y, r * r, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, result);
+        return result.toArray();
+    }
+
+    private void radiusSearch(Node node, double x, double y, double r2, double minX, double minY,
+                              double maxX, double maxY, IntList result) {
+        if (node == null) return;
+        // Distance from the query to the node's cell
+        double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+        double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+        if (dx * dx + dy * dy > r2) {
+            return;
+        }
+        Trace.nodeVisited();
+        double px = points.x(node.index), py = points.y(node.index);
+        double ex = px - x, ey = py - y;
+        if (ex * ex + ey * ey <= r2) {
+            result.add(node.index);
+        }
+        if (node.depth % 2 == 0) {
+            radiusSearch(node.left, x, y, r2, minX, minY, px, maxY, result);
+            radiusSearch(node.right, x, y, r2, px, minY, maxX, maxY, result);
+        } else {
+            radiusSearch(node.left, x, y, r2, minX, minY, maxX, py, result);
+            radiusSearch(node.right, x, y, r2, minX, py, maxX, maxY, result);
+        }
+    }
+
+    private static void collect(Node node, IntList result) {
+        if (node == null) return;
+        result.add(node.index);
+        collect(node.left, result);
+        collect(node.right, result);
+    }
+}
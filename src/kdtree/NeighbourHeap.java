@@ -0,0 +1,73 @@
+package kdtree;
+
+import java.util.Arrays;
+
+// Bounded max-heap on squared distance holding the k best candidates
+final class NeighbourHeap {
+    final int capacity;
+    final int[] indices;
+    final double[] distances;
+    int size;
+
+    NeighbourHeap(int capacity) {
+        this.capacity = capacity;
+        this.indices = new int[capacity];
+        this.distances = new double[capacity];
+    }
+
+    double worstDistance() {
+        return size < capacity ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    void offer(int index, double distance) {
+        if (size < capacity) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] >= distance) break;
+                indices[i] = indices[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            indices[i] = index;
+            distances[i] = distance;
+        } else if (distance < distances[0]) {
+            siftDown(index, distance, size);
+        }
+    }
+
+    private void siftDown(int index, double distance, int limit) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= limit) break;
+            if (child + 1 < limit && distances[child + 1] > distances[child]) child++;
+            if (distances[child] <= distance) break;
+            indices[i] = indices[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        indices[i] = index;
+        distances[i] = distance;
+    }
+
+    // Heap sort in place, nearest first; the heap must be cleared before it is reused
+    void sort() {
+        for (int end = size - 1; end > 0; end--) {
+            int index = indices[end];
+            double distance = distances[end];
+            indices[end] = indices[0];
+            distances[end] = distances[0];
+            siftDown(index, distance, end);
+        }
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toSortedIndices() {
+        sort();
+        return Arrays.copyOf(indices, size);
+    }
+}
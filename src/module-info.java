@@ -1,10 +1,11 @@
-/**
- * 
- */
-/**
- * 
- */
+// The algorithms and the file format. Only java.base, so the command line tool and
+// servers can run on a runtime image without the desktop modules.
 module Geometry {
-	requires java.desktop;
-	requires java.base;
-}
\ No newline at end of file
+    exports geometry;
+    exports convex_hull;
+    exports triangulation;
+    exports voronoi;
+    exports kdtree;
+    exports graph;
+    exports io;
+}
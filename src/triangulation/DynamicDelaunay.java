@@ -0,0 +1,747 @@
+package triangulation;
+
+import geometry.IndexSort;
+import geometry.IntList;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+
+// Delaunay triangulation that follows insertions, removals and moves of individual
+// points. The caller's coordinates are copied, points are addressed by the id that
+// insert() returns, as in DynamicConvexHull.
+//
+// Triangles are stored like TriangleMesh: half-edge e belongs to triangle e / 3 and
+// starts at vertex triangles[e]. The hull is closed by ghost triangles that share a
+// vertex at infinity, so every half-edge has a twin and points outside the hull need
+// no special case. Insertion locates the point by a stochastic walk, splits the
+// triangle (or edge) it falls into and restores the Delaunay property with Lawson
+// flips. Removal deletes the star of the vertex and fills the hole with Delaunay
+// ears, looking only at the k neighbours. Both touch O(1) triangles on average. The
+// walk starts from the last triangle touched, or from the nearest of a few sampled
+// vertices if that is closer, so it is short for edits near each other (dragging a
+// point) and O(n^(1/3)) expected for random ones.
+//
+// While all points are collinear there is no triangle; the points wait in a list and
+// edges() chains them in (x, y) order, like DelaunayTriangulation does.
+public class DynamicDelaunay {
+    private static final int GHOST = -1;    // vertex at infinity
+    private static final int DELETED = -2;  // free triangle slot
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private boolean[] alive = new boolean[16];
+    private int[] vertexEdge = new int[16];  // a half-edge leaving the vertex, -1 if not in the mesh
+    private int idCount;
+    private int size;
+    private final IntList freeIds = new IntList();
+
+    private int[] triangles = new int[96];
+    private int[] twins = new int[96];
+    private int slotCount;  // triangle slots in use, including free ones
+    private final IntList freeTriangles = new IntList();
+    private int finiteCount;
+    private int lastTriangle = -1;
+
+    private final IntList collinear = new IntList();  // points waiting for a non-collinear third
+    private final IntList hidden = new IntList();     // duplicates of a mesh vertex
+    private final IntList flipStack = new IntList();
+    private int seed = 0x2545F491;
+
+    public DynamicDelaunay() {
+    }
+
+    @SuppressWarnings("try")
+    public int insert(double x, double y) {
+        int id;
+        if (!freeIds.isEmpty()) {
+            id = freeIds.removeLast();
+        } else {
+            if (idCount == xs.length) {
+                xs = Arrays.copyOf(xs, idCount * 2);
+                ys = Arrays.copyOf(ys, idCount * 2);
+                alive = Arrays.copyOf(alive, idCount * 2);
+                vertexEdge = Arrays.copyOf(vertexEdge, idCount * 2);
+            }
+            id = idCount++;
+        }
+        xs[id] = x;
+        ys[id] = y;
+        alive[id] = true;
+        vertexEdge[id] = -1;
+        size++;
+        try (Trace.Scope scope = Trace.begin("DynamicDelaunay.insert")) {
+            attach(id);
+        }
+        return id;
+    }
+
+    @SuppressWarnings("try")
+    public void remove(int id) {
+        checkAlive(id);
+        try (Trace.Scope scope = Trace.begin("DynamicDelaunay.remove")) {
+            detach(id);
+        }
+        alive[id] = false;
+        size--;
+        freeIds.add(id);
+    }
+
+    // Moves a point while keeping its id
+    @SuppressWarnings("try")
+    public void move(int id, double x, double y) {
+        checkAlive(id);
+        try (Trace.Scope scope = Trace.begin("DynamicDelaunay.move")) {
+            detach(id);
+            xs[id] = x;
+            ys[id] = y;
+            attach(id);
+        }
+    }
+
+    public double x(int id) {
+        return xs[id];
+    }
+
+    public double y(int id) {
+        return ys[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int triangleCount() {
+        return finiteCount;
+    }
+
+    public void clear() {
+        Arrays.fill(alive, false);
+        idCount = 0;
+        size = 0;
+        freeIds.clear();
+        collinear.clear();
+        hidden.clear();
+        clearTriangles();
+    }
+
+    // Delaunay edges as consecutive (start, end) id pairs, every edge once
+    public int[] edges() {
+        if (finiteCount == 0) {
+            return collinearChain();
+        }
+        IntList pairs = new IntList(slotCount * 3);
+        edges(pairs);
+        return pairs.toArray();
+    }
+
+    // Appends the edges() pairs to out, for callers that reuse one list
+    public void edges(IntList out) {
+        if (finiteCount == 0) {
+            for (int id : collinearChain()) {
+                out.add(id);
+            }
+            return;
+        }
+        for (int t = 0; t < slotCount; t++) {
+            if (triangles[3 * t] == DELETED || isGhost(t)) continue;
+            for (int e = 3 * t; e < 3 * t + 3; e++) {
+                int twin = twins[e];
+                if (e < twin || isGhost(twin / 3)) {
+                    out.add(triangles[e]);
+                    out.add(triangles[TriangleMesh.nextHalfedge(e)]);
+                }
+            }
+        }
+    }
+
+    // Appends the ids joined to id by a Delaunay edge, in O(degree) for mesh vertices.
+    // A duplicate of another point has no edges.
+    public void neighbors(int id, IntList out) {
+        checkAlive(id);
+        if (finiteCount == 0) {
+            int[] chain = collinearChain();
+            for (int i = 0; i < chain.length; i += 2) {
+                if (chain[i] == id) out.add(chain[i + 1]);
+                if (chain[i + 1] == id) out.add(chain[i]);
+            }
+            return;
+        }
+        int first = vertexEdge[id];
+        if (first < 0) {
+            return;
+        }
+        int e = first;
+        do {
+            int u = triangles[TriangleMesh.nextHalfedge(e)];
+            if (u != GHOST) out.add(u);
+            e = twins[TriangleMesh.prevHalfedge(e)];
+        } while (e != first);
+    }
+
+    // Snapshot of the finite triangles; vertex indices are point ids
+    public TriangleMesh toMesh() {
+        int[] index = new int[slotCount];
+        int count = 0;
+        for (int t = 0; t < slotCount; t++) {
+            index[t] = triangles[3 * t] == DELETED || isGhost(t) ? -1 : count++;
+        }
+        int[] meshTriangles = new int[count * 3];
+        int[] meshHalfedges = new int[count * 3];
+        for (int t = 0; t < slotCount; t++) {
+            if (index[t] < 0) continue;
+            for (int i = 0; i < 3; i++) {
+                int e = 3 * index[t] + i;
+                int twin = twins[3 * t + i];
+                meshTriangles[e] = triangles[3 * t + i];
+                meshHalfedges[e] = index[twin / 3] < 0 ? -1 : 3 * index[twin / 3] + twin % 3;
+            }
+        }
+        return new TriangleMesh(Arrays.copyOf(xs, idCount), Arrays.copyOf(ys, idCount), idCount,
+                meshTriangles, meshHalfedges);
+    }
+
+    private void attach(int v) {
+        if (finiteCount == 0) {
+            collinear.add(v);
+            startMesh();
+        } else {
+            insertIntoMesh(v);
+        }
+    }
+
+    private void detach(int v) {
+        if (vertexEdge[v] < 0) {
+            if (!removeValue(collinear, v)) {
+                removeValue(hidden, v);
+            }
+            return;
+        }
+        removeFromMesh(v);
+        vertexEdge[v] = -1;
+        if (finiteCount == 0) {
+            startMesh();  // a duplicate of v may have been the missing third point
+            return;
+        }
+        // A duplicate takes over the position of the removed vertex
+        for (int i = 0; i < hidden.size(); i++) {
+            int duplicate = hidden.get(i);
+            if (samePoint(duplicate, v)) {
+                removeValue(hidden, duplicate);
+                attach(duplicate);
+                break;
+            }
+        }
+    }
+
+    // Builds the first triangle as soon as three points are not collinear
+    private void startMesh() {
+        int n = collinear.size();
+        if (n < 3) {
+            return;
+        }
+        int a = collinear.get(0);
+        int b = -1;
+        int c = -1;
+        for (int i = 1; i < n && b < 0; i++) {
+            if (!samePoint(a, collinear.get(i))) b = collinear.get(i);
+        }
+        for (int i = 1; b >= 0 && i < n && c < 0; i++) {
+            if (orient(a, b, collinear.get(i)) != 0) c = collinear.get(i);
+        }
+        if (c < 0) {
+            return;
+        }
+        if (orient(a, b, c) < 0) {
+            int swap = b;
+            b = c;
+            c = swap;
+        }
+        int t = newTriangle(a, b, c);
+        int g0 = newTriangle(b, a, GHOST);
+        int g1 = newTriangle(c, b, GHOST);
+        int g2 = newTriangle(a, c, GHOST);
+        link(3 * t, 3 * g0);
+        link(3 * t + 1, 3 * g1);
+        link(3 * t + 2, 3 * g2);
+        link(3 * g0 + 1, 3 * g2 + 2);
+        link(3 * g0 + 2, 3 * g1 + 1);
+        link(3 * g1 + 2, 3 * g2 + 1);
+        updateVertexEdges(t);
+        lastTriangle = t;
+
+        int[] rest = collinear.toArray();
+        collinear.clear();
+        for (int v : rest) {
+            if (v != a && v != b && v != c) insertIntoMesh(v);
+        }
+    }
+
+    private void insertIntoMesh(int p) {
+        int t = locate(xs[p], ys[p]);
+        if (!isGhost(t)) {
+            int onEdge = -1;
+            for (int e = 3 * t; e < 3 * t + 3; e++) {
+                if (samePoint(triangles[e], p)) {
+                    hidden.add(p);
+                    return;
+                }
+                if (orient(triangles[e], triangles[TriangleMesh.nextHalfedge(e)], p) == 0) {
+                    onEdge = e;
+                }
+            }
+            if (onEdge >= 0) {
+                splitEdge(onEdge, p);
+                return;
+            }
+        }
+        splitTriangle(t, p);
+    }
+
+    // Visibility walk: cross any edge that has the point strictly on its far side,
+    // starting from a random edge so degenerate configurations cannot cycle.
+    // Returns a finite triangle containing the point (possibly on its boundary) or the
+    // ghost triangle of a hull edge that sees it.
+    private int locate(double px, double py) {
+        int t = lastTriangle;
+        if (t < 0 || triangles[3 * t] == DELETED) {
+            t = 0;
+            while (triangles[3 * t] == DELETED) t++;
+        }
+        t = jumpStart(t, px, py);
+        if (isGhost(t)) {
+            int e = hullEdgeOf(t);
+            if (orient(triangles[e], triangles[TriangleMesh.nextHalfedge(e)], px, py) > 0) {
+                return t;
+            }
+            t = twins[e] / 3;
+        }
+        while (true) {
+            Trace.nodeVisited();
+            int start = (nextRandom() >>> 1) % 3;
+            int next = -1;
+            for (int i = 0; i < 3; i++) {
+                int e = 3 * t + (start + i) % 3;
+                if (orient(triangles[e], triangles[TriangleMesh.nextHalfedge(e)], px, py) < 0) {
+                    next = twins[e] / 3;
+                    break;
+                }
+            }
+            if (next < 0 || isGhost(next)) {
+                lastTriangle = next < 0 ? t : next;
+                return lastTriangle;
+            }
+            t = next;
+        }
+    }
+
+    // Jump and walk: starts from the closest of about n^(1/3) random vertices when it
+    // is closer than the last triangle, so random insertion orders walk O(n^(1/3))
+    // triangles instead of O(sqrt(n)).
+    private int jumpStart(int t, double px, double py) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int e = 3 * t; e < 3 * t + 3; e++) {
+            if (triangles[e] >= 0) {
+                best = triangles[e];
+                bestDistance = distanceSquared(best, px, py);
+                break;
+            }
+        }
+        int samples = (int) Math.cbrt(size);
+        for (int i = 0; i < samples; i++) {
+            int v = (int) ((nextRandom() & 0x7fffffffL) % idCount);
+            if (!alive[v] || vertexEdge[v] < 0) continue;
+            double distance = distanceSquared(v, px, py);
+            if (distance < bestDistance) {
+                best = v;
+                bestDistance = distance;
+                t = vertexEdge[v] / 3;
+            }
+        }
+        return t;
+    }
+
+    private double distanceSquared(int v, double px, double py) {
+        double dx = xs[v] - px;
+        double dy = ys[v] - py;
+        return dx * dx + dy * dy;
+    }
+
+    private int nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    // 1-to-3 split; also used for a ghost triangle when p lies outside the hull
+    private void splitTriangle(int t, int p) {
+        int x0 = triangles[3 * t], x1 = triangles[3 * t + 1], x2 = triangles[3 * t + 2];
+        int o0 = twins[3 * t], o1 = twins[3 * t + 1], o2 = twins[3 * t + 2];
+        freeTriangle(t);
+        int a = newTriangle(x0, x1, p);
+        int b = newTriangle(x1, x2, p);
+        int c = newTriangle(x2, x0, p);
+        link(3 * a, o0);
+        link(3 * b, o1);
+        link(3 * c, o2);
+        link(3 * a + 1, 3 * b + 2);
+        link(3 * b + 1, 3 * c + 2);
+        link(3 * c + 1, 3 * a + 2);
+        updateVertexEdges(a);
+        updateVertexEdges(b);
+        updateVertexEdges(c);
+        lastTriangle = a;
+        legalize(3 * a);
+        legalize(3 * b);
+        legalize(3 * c);
+    }
+
+    // 2-to-4 split of the edge a->b of triangle (a, b, c) and its twin's triangle (b, a, d)
+    private void splitEdge(int e, int p) {
+        int f = twins[e];
+        int a = triangles[e];
+        int b = triangles[TriangleMesh.nextHalfedge(e)];
+        int c = triangles[TriangleMesh.prevHalfedge(e)];
+        int d = triangles[TriangleMesh.prevHalfedge(f)];
+        int outerCA = twins[TriangleMesh.prevHalfedge(e)];
+        int outerBC = twins[TriangleMesh.nextHalfedge(e)];
+        int outerDB = twins[TriangleMesh.prevHalfedge(f)];
+        int outerAD = twins[TriangleMesh.nextHalfedge(f)];
+        freeTriangle(e / 3);
+        freeTriangle(f / 3);
+        int t0 = newTriangle(c, a, p);
+        int t1 = newTriangle(c, p, b);
+        int u0 = newTriangle(d, b, p);
+        int u1 = newTriangle(d, p, a);
+        link(3 * t0, outerCA);
+        link(3 * t1 + 2, outerBC);
+        link(3 * u0, outerDB);
+        link(3 * u1 + 2, outerAD);
+        link(3 * t0 + 1, 3 * u1 + 1);
+        link(3 * t0 + 2, 3 * t1);
+        link(3 * t1 + 1, 3 * u0 + 1);
+        link(3 * u0 + 2, 3 * u1);
+        updateVertexEdges(t0);
+        updateVertexEdges(t1);
+        updateVertexEdges(u0);
+        updateVertexEdges(u1);
+        lastTriangle = t0;
+        legalize(3 * t0);
+        legalize(3 * t1 + 2);
+        legalize(3 * u0);
+        legalize(3 * u1 + 2);
+    }
+
+    // Flips edges opposite the new point until every one of them is locally Delaunay
+    private void legalize(int edge) {
+        flipStack.add(edge);
+        while (!flipStack.isEmpty()) {
+            int e = flipStack.removeLast();
+            int p = triangles[TriangleMesh.prevHalfedge(e)];
+            if (!inCircumcircle(twins[e] / 3, p)) continue;
+
+            int f = twins[e];
+            int t = e / 3;
+            int u = f / 3;
+            int x = triangles[e];
+            int y = triangles[TriangleMesh.nextHalfedge(e)];
+            int q = triangles[TriangleMesh.prevHalfedge(f)];
+            int outerYP = twins[TriangleMesh.nextHalfedge(e)];
+            int outerPX = twins[TriangleMesh.prevHalfedge(e)];
+            int outerXQ = twins[TriangleMesh.nextHalfedge(f)];
+            int outerQY = twins[TriangleMesh.prevHalfedge(f)];
+            setTriangle(t, p, x, q);
+            setTriangle(u, q, y, p);
+            link(3 * t, outerPX);
+            link(3 * t + 1, outerXQ);
+            link(3 * t + 2, 3 * u + 2);
+            link(3 * u, outerQY);
+            link(3 * u + 1, outerYP);
+            updateVertexEdges(t);
+            updateVertexEdges(u);
+            Trace.edgeFlipped();
+            flipStack.add(3 * t + 1);
+            flipStack.add(3 * u);
+        }
+    }
+
+    // For a ghost triangle the "circle" is the open half-plane beyond its hull edge
+    private boolean inCircumcircle(int t, int p) {
+        int a = triangles[3 * t], b = triangles[3 * t + 1], c = triangles[3 * t + 2];
+        if (a == GHOST) return orient(b, c, p) > 0;
+        if (b == GHOST) return orient(c, a, p) > 0;
+        if (c == GHOST) return orient(a, b, p) > 0;
+        Trace.circumcircleTest();
+        return Predicates.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[p], ys[p]) > 0;
+    }
+
+    private void removeFromMesh(int v) {
+        // Star of v in counter-clockwise order: triangle i is (v, link[i], link[i + 1])
+        IntList star = new IntList();
+        int first = vertexEdge[v];
+        int e = first;
+        do {
+            star.add(e);
+            e = twins[TriangleMesh.prevHalfedge(e)];
+        } while (e != first);
+
+        int k = star.size();
+        int[] link = new int[k];
+        int[] outer = new int[k];  // twin of the link edge link[i] -> link[i + 1]
+        int ghostAt = -1;
+        int finiteInStar = 0;
+        for (int i = 0; i < k; i++) {
+            int out = star.get(i);
+            link[i] = triangles[TriangleMesh.nextHalfedge(out)];
+            outer[i] = twins[TriangleMesh.nextHalfedge(out)];
+            if (link[i] == GHOST) ghostAt = i;
+            if (!isGhost(out / 3)) finiteInStar++;
+        }
+
+        if (ghostAt < 0) {
+            for (int i = 0; i < k; i++) {
+                freeTriangle(star.get(i) / 3);
+            }
+            lastTriangle = fillPolygon(link, outer, k);
+            return;
+        }
+
+        // Hull vertex: the link minus the ghost is a chain c[0..m] seen from v, and
+        // the new hull between c[m] and c[0] is the convex chain of those points.
+        int m = k - 2;
+        int[] chain = new int[m + 1];
+        int[] chainOuter = new int[m];
+        for (int j = 0; j <= m; j++) {
+            chain[j] = link[(ghostAt + 1 + j) % k];
+            if (j < m) chainOuter[j] = outer[(ghostAt + 1 + j) % k];
+        }
+        int ghostBefore = outer[ghostAt];                // c[0] -> ghost
+        int ghostAfter = outer[(ghostAt + k - 1) % k];  // ghost -> c[m]
+
+        IntList hull = new IntList();
+        for (int j = 0; j <= m; j++) {
+            while (hull.size() >= 2 && orient(chain[hull.get(hull.size() - 2)], chain[hull.get(hull.size() - 1)], chain[j]) > 0) {
+                hull.removeLast();
+            }
+            hull.add(j);
+        }
+        int newFinite = m + 1 - hull.size();
+        if (finiteCount - finiteInStar + newFinite == 0) {
+            // The remaining points are collinear
+            dissolveMesh(v);
+            return;
+        }
+
+        for (int i = 0; i < k; i++) {
+            freeTriangle(star.get(i) / 3);
+        }
+        int previousGhost = -1;
+        for (int h = 0; h + 1 < hull.size(); h++) {
+            int i = hull.get(h);
+            int j = hull.get(h + 1);
+            int g = newTriangle(chain[i], chain[j], GHOST);
+            link(3 * g + 2, previousGhost < 0 ? ghostBefore : 3 * previousGhost + 1);
+            updateVertexEdges(g);
+            lastTriangle = g;
+            if (j == i + 1) {
+                link(3 * g, chainOuter[i]);
+            } else {
+                int count = j - i + 1;
+                int[] pocket = Arrays.copyOfRange(chain, i, j + 1);
+                int[] pocketOuter = new int[count];
+                System.arraycopy(chainOuter, i, pocketOuter, 0, count - 1);
+                pocketOuter[count - 1] = 3 * g;  // closing edge c[j] -> c[i]
+                fillPolygon(pocket, pocketOuter, count);
+            }
+            previousGhost = g;
+        }
+        link(3 * previousGhost + 1, ghostAfter);
+    }
+
+    // Triangulates a counter-clockwise polygon whose edges are Delaunay edges by
+    // clipping ears whose circumcircle holds no other polygon vertex. Edge i runs
+    // from vertices[i] to vertices[i + 1] and is linked to outer[i].
+    private int fillPolygon(int[] vertices, int[] outer, int n) {
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        int[] edge = Arrays.copyOf(outer, n);
+        for (int i = 0; i < n; i++) {
+            prev[i] = (i + n - 1) % n;
+            next[i] = (i + 1) % n;
+        }
+        int current = 0;
+        for (int remaining = n; remaining > 3; remaining--) {
+            int ear = -1;
+            for (int tries = 0, b = current; tries < remaining && ear < 0; tries++, b = next[b]) {
+                if (isDelaunayEar(vertices, prev, next, b)) ear = b;
+            }
+            if (ear < 0) {
+                throw new IllegalStateException("No Delaunay ear left while filling a hole.");
+            }
+            int a = prev[ear];
+            int c = next[ear];
+            int t = newTriangle(vertices[a], vertices[ear], vertices[c]);
+            link(3 * t, edge[a]);
+            link(3 * t + 1, edge[ear]);
+            twins[3 * t + 2] = -1;
+            edge[a] = 3 * t + 2;
+            updateVertexEdges(t);
+            next[a] = c;
+            prev[c] = a;
+            current = a;
+        }
+        int a = current;
+        int b = next[a];
+        int c = next[b];
+        int t = newTriangle(vertices[a], vertices[b], vertices[c]);
+        link(3 * t, edge[a]);
+        link(3 * t + 1, edge[b]);
+        link(3 * t + 2, edge[c]);
+        updateVertexEdges(t);
+        return t;
+    }
+
+    private boolean isDelaunayEar(int[] vertices, int[] prev, int[] next, int b) {
+        int a = prev[b];
+        int c = next[b];
+        int va = vertices[a], vb = vertices[b], vc = vertices[c];
+        if (orient(va, vb, vc) <= 0) {
+            return false;
+        }
+        for (int d = next[c]; d != a; d = next[d]) {
+            int vd = vertices[d];
+            Trace.circumcircleTest();
+            if (Predicates.incircle(xs[va], ys[va], xs[vb], ys[vb], xs[vc], ys[vc], xs[vd], ys[vd]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Drops all triangles when removing v leaves only collinear points
+    private void dissolveMesh(int v) {
+        for (int t = 0; t < slotCount; t++) {
+            for (int e = 3 * t; e < 3 * t + 3; e++) {
+                int u = triangles[e];
+                if (u >= 0 && u != v && vertexEdge[u] >= 0) {
+                    vertexEdge[u] = -1;
+                    collinear.add(u);
+                }
+            }
+        }
+        for (int i = 0; i < hidden.size(); i++) {
+            collinear.add(hidden.get(i));
+        }
+        hidden.clear();
+        clearTriangles();
+    }
+
+    private int[] collinearChain() {
+        int[] ids = collinear.toArray();
+        IndexSort.sortLexicographic(xs, ys, ids, 0, ids.length);
+        IntList pairs = new IntList();
+        for (int i = 1; i < ids.length; i++) {
+            if (samePoint(ids[i - 1], ids[i])) {
+                ids[i] = ids[i - 1];  // keep chaining from the first copy
+                continue;
+            }
+            pairs.add(ids[i - 1]);
+            pairs.add(ids[i]);
+        }
+        return pairs.toArray();
+    }
+
+    private int newTriangle(int a, int b, int c) {
+        int t;
+        if (!freeTriangles.isEmpty()) {
+            t = freeTriangles.removeLast();
+        } else {
+            if (3 * slotCount == triangles.length) {
+                triangles = Arrays.copyOf(triangles, triangles.length * 2);
+                twins = Arrays.copyOf(twins, twins.length * 2);
+            }
+            t = slotCount++;
+        }
+        triangles[3 * t] = a;
+        triangles[3 * t + 1] = b;
+        triangles[3 * t + 2] = c;
+        if (!isGhost(t)) finiteCount++;
+        return t;
+    }
+
+    private void setTriangle(int t, int a, int b, int c) {
+        if (!isGhost(t)) finiteCount--;
+        triangles[3 * t] = a;
+        triangles[3 * t + 1] = b;
+        triangles[3 * t + 2] = c;
+        if (!isGhost(t)) finiteCount++;
+    }
+
+    private void freeTriangle(int t) {
+        if (!isGhost(t)) finiteCount--;
+        triangles[3 * t] = DELETED;
+        triangles[3 * t + 1] = DELETED;
+        triangles[3 * t + 2] = DELETED;
+        freeTriangles.add(t);
+    }
+
+    private void clearTriangles() {
+        slotCount = 0;
+        freeTriangles.clear();
+        finiteCount = 0;
+        lastTriangle = -1;
+    }
+
+    private boolean isGhost(int t) {
+        return triangles[3 * t] == GHOST || triangles[3 * t + 1] == GHOST || triangles[3 * t + 2] == GHOST;
+    }
+
+    // The half-edge of a ghost triangle that lies on the hull
+    private int hullEdgeOf(int t) {
+        if (triangles[3 * t + 2] == GHOST) return 3 * t;
+        if (triangles[3 * t] == GHOST) return 3 * t + 1;
+        return 3 * t + 2;
+    }
+
+    private void link(int e, int f) {
+        twins[e] = f;
+        twins[f] = e;
+    }
+
+    private void updateVertexEdges(int t) {
+        for (int e = 3 * t; e < 3 * t + 3; e++) {
+            if (triangles[e] >= 0) vertexEdge[triangles[e]] = e;
+        }
+    }
+
+    private static boolean removeValue(IntList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                list.set(i, list.get(list.size() - 1));
+                list.removeLast();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean samePoint(int a, int b) {
+        return xs[a] == xs[b] && ys[a] == ys[b];
+    }
+
+    private double orient(int p, int q, int r) {
+        return orient(p, q, xs[r], ys[r]);
+    }
+
+    private double orient(int p, int q, double rx, double ry) {
+        Trace.orientationTest();
+        return Predicates.orient2d(xs[p], ys[p], xs[q], ys[q], rx, ry);
+    }
+
+    private void checkAlive(int id) {
+        if (id < 0 || id >= idCount || !alive[id]) {
+            throw new IllegalArgumentException("Unknown point id " + id);
+        }
+    }
+}
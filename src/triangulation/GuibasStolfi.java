@@ -0,0 +1,405 @@
+package triangulation;
+
+import geometry.IndexSort;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Divide-and-conquer Delaunay triangulation (Guibas & Stolfi, 1985) on a quad-edge
+// structure kept in primitive arrays. Runs in O(n log n) for n input points.
+//
+// With a pool, subtrees larger than the cutoff triangulate their left half as a
+// fork-join task on a worker that shares the arrays but has its own free list. The
+// halves touch disjoint edge slots, so the parallel run builds exactly the same
+// structure as the sequential one.
+final class GuibasStolfi {
+    private final double[] xs;
+    private final double[] ys;
+    private final int n;
+
+    // Quarter edge q = 4 * edge + rotation. next[q] is Onext(q); org[q >> 1] is the
+    // origin vertex of the primal quarter edges (rotation 0 and 2), -1 for free slots.
+    private int[] next;
+    private int[] org;
+
+    // The subtree over sorted[lo, hi) owns edge slots [3 * lo, 3 * hi), which always
+    // covers a planar graph on hi - lo vertices. Unused slots of a subtree form a
+    // free list linked through next[4 * edge], handed up to the parent on return.
+    private int freeHead = -1;
+    private int freeTail = -1;
+
+    private int[] sorted;
+    private int uniqueCount;
+
+    private ForkJoinPool pool;
+    private int parallelCutoff = Integer.MAX_VALUE;
+
+    GuibasStolfi(double[] xs, double[] ys, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.n = n;
+    }
+
+    // Worker for a forked subtree
+    private GuibasStolfi(GuibasStolfi parent) {
+        this.xs = parent.xs;
+        this.ys = parent.ys;
+        this.n = parent.n;
+        this.next = parent.next;
+        this.org = parent.org;
+        this.sorted = parent.sorted;
+        this.pool = parent.pool;
+        this.parallelCutoff = parent.parallelCutoff;
+    }
+
+    void triangulate() {
+        triangulate(null, Integer.MAX_VALUE);
+    }
+
+    // Subtrees of more than cutoff points split into fork-join tasks on the pool
+    void triangulate(ForkJoinPool pool, int cutoff) {
+        if (cutoff < 3) {
+            throw new IllegalArgumentException("Parallel cutoff must be at least 3.");
+        }
+        this.pool = pool;
+        this.parallelCutoff = pool == null ? Integer.MAX_VALUE : cutoff;
+
+        sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        if (pool == null) {
+            IndexSort.sortLexicographic(xs, ys, sorted, 0, n);
+        } else {
+            IndexSort.parallelSortLexicographic(xs, ys, sorted, 0, n, pool, cutoff);
+        }
+
+        // Coincident points would break the merge step, keep the lowest index of each
+        // run so the result does not depend on how the sort orders ties
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            int v = sorted[i];
+            if (unique > 0) {
+                int last = sorted[unique - 1];
+                if (xs[last] == xs[v] && ys[last] == ys[v]) {
+                    if (v < last) sorted[unique - 1] = v;
+                    continue;
+                }
+            }
+            sorted[unique++] = v;
+        }
+        uniqueCount = unique;
+
+        int capacity = 3 * uniqueCount;
+        next = new int[capacity * 4];
+        org = new int[capacity * 2];
+        Arrays.fill(org, -1);
+        if (uniqueCount > parallelCutoff) {
+            pool.invoke(new SubtreeTask(this, 0, uniqueCount));
+        } else if (uniqueCount >= 2) {
+            delaunay(0, uniqueCount);
+        }
+    }
+
+    // Collects the CCW faces of the subdivision. Faces are visited in edge slot order,
+    // which only depends on the recursion, so the output is deterministic.
+    TriangleMesh toMesh() {
+        int primalCount = org.length;
+        int[] halfedgeOf = new int[primalCount];
+        Arrays.fill(halfedgeOf, -1);
+
+        int[] triEdge = new int[primalCount];
+        int t = 0;
+        for (int e = 0; e < primalCount / 2; e++) {
+            if (org[e << 1] < 0) continue;
+            for (int r = 0; r < 4; r += 2) {
+                int q = (e << 2) | r;
+                if (halfedgeOf[q >> 1] >= 0) continue;
+                int q1 = lnext(q);
+                int q2 = lnext(q1);
+                if (lnext(q2) != q) continue;
+                if (orient(org(q), org(q1), org(q2)) <= 0) continue;
+
+                triEdge[t * 3] = q;
+                triEdge[t * 3 + 1] = q1;
+                triEdge[t * 3 + 2] = q2;
+                halfedgeOf[q >> 1] = t * 3;
+                halfedgeOf[q1 >> 1] = t * 3 + 1;
+                halfedgeOf[q2 >> 1] = t * 3 + 2;
+                t++;
+            }
+        }
+
+        int[] triangles = new int[t * 3];
+        int[] halfedges = new int[t * 3];
+        for (int h = 0; h < t * 3; h++) {
+            int q = triEdge[h];
+            triangles[h] = org(q);
+            halfedges[h] = halfedgeOf[sym(q) >> 1];
+        }
+        return new TriangleMesh(xs, ys, n, triangles, halfedges);
+    }
+
+    // All Delaunay edges as vertex pairs. A point set without any triangle is
+    // collinear and its triangulation is the chain through the sorted points.
+    int[] edgePairs(TriangleMesh mesh) {
+        if (mesh.triangleCount() > 0 || uniqueCount < 2) {
+            return mesh.edges();
+        }
+        int[] pairs = new int[(uniqueCount - 1) * 2];
+        for (int i = 0; i + 1 < uniqueCount; i++) {
+            pairs[i * 2] = sorted[i];
+            pairs[i * 2 + 1] = sorted[i + 1];
+        }
+        return pairs;
+    }
+
+    // Returns (le << 32 | re): the CCW hull edge out of the leftmost vertex and the
+    // CW hull edge out of the rightmost vertex of sorted[lo, hi).
+    private long delaunay(int lo, int hi) {
+        int count = hi - lo;
+        if (count <= 3) {
+            claimSlots(3 * lo, 3 * hi);
+        }
+        if (count == 2) {
+            int a = makeEdge(sorted[lo], sorted[lo + 1]);
+            return pack(a, sym(a));
+        }
+        if (count == 3) {
+            int s1 = sorted[lo], s2 = sorted[lo + 1], s3 = sorted[lo + 2];
+            int a = makeEdge(s1, s2);
+            int b = makeEdge(s2, s3);
+            splice(sym(a), b);
+            double o = orient(s1, s2, s3);
+            if (o > 0) {
+                connect(b, a);
+                return pack(a, sym(b));
+            } else if (o < 0) {
+                int c = connect(b, a);
+                return pack(sym(c), c);
+            }
+            return pack(a, sym(b));
+        }
+
+        int mid = lo + count / 2;
+        long left, right;
+        int leftHead, leftTail;
+        if (count > parallelCutoff) {
+            // The right half runs here and leaves its free list where the merge expects it
+            GuibasStolfi worker = new GuibasStolfi(this);
+            SubtreeTask task = new SubtreeTask(worker, lo, mid);
+            task.fork();
+            right = delaunay(mid, hi);
+            left = task.join();
+            leftHead = worker.freeHead;
+            leftTail = worker.freeTail;
+        } else {
+            left = delaunay(lo, mid);
+            leftHead = freeHead;
+            leftTail = freeTail;
+            right = delaunay(mid, hi);
+        }
+        if (leftHead >= 0) {
+            if (freeHead >= 0) {
+                next[leftTail << 2] = freeHead;
+            } else {
+                freeTail = leftTail;
+            }
+            freeHead = leftHead;
+        }
+        int ldo = (int) (left >>> 32), ldi = (int) left;
+        int rdi = (int) (right >>> 32), rdo = (int) right;
+
+        // Find the lower common tangent of the two halves
+        while (true) {
+            if (leftOf(org(rdi), ldi)) {
+                ldi = lnext(ldi);
+            } else if (rightOf(org(ldi), rdi)) {
+                rdi = rprev(rdi);
+            } else {
+                break;
+            }
+        }
+
+        int basel = connect(sym(rdi), ldi);
+        if (org(ldi) == org(ldo)) ldo = sym(basel);
+        if (org(rdi) == org(rdo)) rdo = basel;
+
+        // Zip the halves together from the bottom up
+        while (true) {
+            int lcand = onext(sym(basel));
+            if (valid(lcand, basel)) {
+                while (inCircle(dest(basel), org(basel), dest(lcand), dest(onext(lcand)))) {
+                    int t = onext(lcand);
+                    deleteEdge(lcand);
+                    lcand = t;
+                }
+            }
+            int rcand = oprev(basel);
+            if (valid(rcand, basel)) {
+                while (inCircle(dest(basel), org(basel), dest(rcand), dest(oprev(rcand)))) {
+                    int t = oprev(rcand);
+                    deleteEdge(rcand);
+                    rcand = t;
+                }
+            }
+            boolean lvalid = valid(lcand, basel);
+            boolean rvalid = valid(rcand, basel);
+            if (!lvalid && !rvalid) break;
+            if (!lvalid || (rvalid && inCircle(dest(lcand), org(lcand), org(rcand), dest(rcand)))) {
+                basel = connect(rcand, sym(basel));
+            } else {
+                basel = connect(sym(basel), sym(lcand));
+            }
+        }
+        return pack(ldo, rdo);
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xffffffffL);
+    }
+
+    private boolean valid(int e, int basel) {
+        return orient(dest(e), dest(basel), org(basel)) > 0;
+    }
+
+    private boolean leftOf(int vertex, int e) {
+        return orient(vertex, org(e), dest(e)) > 0;
+    }
+
+    private boolean rightOf(int vertex, int e) {
+        return orient(vertex, dest(e), org(e)) > 0;
+    }
+
+    private double orient(int a, int b, int c) {
+        Trace.orientationTest();
+        return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+    }
+
+    // True if d lies strictly inside the circle through a, b, c (given in CCW order)
+    private boolean inCircle(int a, int b, int c, int d) {
+        Trace.circumcircleTest();
+        return Predicates.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) > 0;
+    }
+
+    // Quad-edge primitives
+
+    private static int rot(int q) {
+        return (q & ~3) | ((q + 1) & 3);
+    }
+
+    private static int rotInv(int q) {
+        return (q & ~3) | ((q + 3) & 3);
+    }
+
+    private static int sym(int q) {
+        return q ^ 2;
+    }
+
+    private int onext(int q) {
+        return next[q];
+    }
+
+    private int oprev(int q) {
+        return rot(next[rot(q)]);
+    }
+
+    private int lnext(int q) {
+        return rot(next[rotInv(q)]);
+    }
+
+    private int rprev(int q) {
+        return next[sym(q)];
+    }
+
+    private int org(int q) {
+        return org[q >> 1];
+    }
+
+    private int dest(int q) {
+        return org[sym(q) >> 1];
+    }
+
+    // Starts a fresh free list over the slot range [from, to)
+    private void claimSlots(int from, int to) {
+        for (int e = from; e < to - 1; e++) {
+            next[e << 2] = e + 1;
+        }
+        next[(to - 1) << 2] = -1;
+        freeHead = from;
+        freeTail = to - 1;
+    }
+
+    private int makeEdge(int a, int b) {
+        int e = freeHead;
+        if (e < 0) {
+            throw new IllegalStateException("Edge capacity exhausted, input is not in general position.");
+        }
+        freeHead = next[e << 2];
+        if (freeHead < 0) freeTail = -1;
+        Trace.edgeInserted();
+        int q = e << 2;
+        next[q] = q;
+        next[q + 1] = q + 3;
+        next[q + 2] = q + 2;
+        next[q + 3] = q + 1;
+        org[e << 1] = a;
+        org[(e << 1) + 1] = b;
+        return q;
+    }
+
+    private void splice(int a, int b) {
+        int alpha = rot(next[a]);
+        int beta = rot(next[b]);
+        int t1 = next[b];
+        int t2 = next[a];
+        int t3 = next[beta];
+        int t4 = next[alpha];
+        next[a] = t1;
+        next[b] = t2;
+        next[alpha] = t3;
+        next[beta] = t4;
+    }
+
+    private int connect(int a, int b) {
+        int e = makeEdge(dest(a), org(b));
+        splice(e, lnext(a));
+        splice(sym(e), b);
+        return e;
+    }
+
+    private void deleteEdge(int q) {
+        Trace.edgeDeleted();
+        splice(q, oprev(q));
+        splice(sym(q), oprev(sym(q)));
+        int e = q >> 2;
+        org[e << 1] = -1;
+        org[(e << 1) + 1] = -1;
+        next[e << 2] = freeHead;
+        if (freeHead < 0) freeTail = e;
+        freeHead = e;
+    }
+
+    private static final class SubtreeTask extends RecursiveTask<Long> {
+        private final GuibasStolfi worker;
+        private final int lo;
+        private final int hi;
+        private final Trace.Scope scope = Trace.current();  // of the thread creating the task
+
+        SubtreeTask(GuibasStolfi worker, int lo, int hi) {
+            this.worker = worker;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected Long compute() {
+            try (Trace.Scope attached = Trace.attach(scope)) {
+                return worker.delaunay(lo, hi);
+            }
+        }
+    }
+}
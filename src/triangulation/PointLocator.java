@@ -0,0 +1,263 @@
+package triangulation;
+
+import geometry.IndexSort;
+import geometry.PointSet;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+import java.util.Random;
+
+// Answers "which triangle of the mesh contains (x, y)" with a remembering stochastic
+// walk (Devillers, Pion & Teillaud, 2002): from the current triangle, cross the first
+// edge that has the query on its outer side, testing the edges in random order and
+// skipping the one just crossed. Triangles are counter-clockwise, so the walk stops
+// in the containing triangle, or leaves the mesh through a hull edge when the query
+// lies outside the convex hull.
+//
+// The walk starts either near the query (jump and walk: the closest of some n^(1/3)
+// sample vertices) or, with the hierarchy, from the top of a Delaunay hierarchy
+// (Devillers, 2002): each level triangulates a random 1 / RATIO of the level below,
+// and the search walks down through the levels, starting each walk at the vertex
+// closest to the query in the triangle found one level up.
+//
+// Batch queries are answered in Morton (Z-curve) order, each walk starting from the
+// previous answer, so consecutive walks are short and touch memory already cached.
+//
+// A locator never changes after construction and may be shared between threads.
+public class PointLocator {
+    private static final int RATIO = 30;       // vertices per vertex of the level above
+    private static final int TOP_SIZE = 64;    // no level above a level this small
+    // Jump and walk samples SAMPLE_FACTOR * n^(1/3) vertices: a walk step costs about as
+    // much as a hundred sample distances, because it misses the cache
+    private static final double SAMPLE_FACTOR = 16;
+
+    private static final class Level {
+        final double[] xs;
+        final double[] ys;
+        final int[] triangles;
+        final int[] halfedges;
+        final int[] vertexEdge;  // some half-edge out of each vertex, -1 if it is in no triangle
+        final int[] down;        // vertex id in the level below, null for the mesh itself
+        final int[] samples;     // start candidates for jump and walk, coordinates copied
+        final double[] sampleXs; // next to each other for a fast scan
+        final double[] sampleYs;
+
+        Level(TriangleMesh mesh, double[] xs, double[] ys, int[] down) {
+            this.xs = xs;
+            this.ys = ys;
+            this.triangles = mesh.getTriangles();
+            this.halfedges = mesh.getHalfedges();
+            this.down = down;
+            vertexEdge = new int[mesh.vertexCount()];
+            Arrays.fill(vertexEdge, -1);
+            for (int e = 0; e < triangles.length; e++) {
+                vertexEdge[triangles[e]] = e;
+            }
+            int used = 0;
+            for (int edge : vertexEdge) {
+                if (edge >= 0) used++;
+            }
+            int count = Math.max(1, (int) (SAMPLE_FACTOR * Math.cbrt(used)));
+            int stride = Math.max(1, used / count);
+            samples = new int[(used + stride - 1) / stride];
+            sampleXs = new double[samples.length];
+            sampleYs = new double[samples.length];
+            int k = 0;
+            for (int v = 0, seen = 0; v < vertexEdge.length; v++) {
+                if (vertexEdge[v] < 0) continue;
+                if (seen++ % stride == 0) {
+                    sampleXs[k] = xs[v];
+                    sampleYs[k] = ys[v];
+                    samples[k++] = v;
+                }
+            }
+        }
+    }
+
+    private final TriangleMesh mesh;
+    private final Level[] levels;  // levels[0] is the mesh, the last one the top
+
+    public PointLocator(TriangleMesh mesh) {
+        this(mesh, false);
+    }
+
+    @SuppressWarnings("try")
+    public PointLocator(TriangleMesh mesh, boolean hierarchy) {
+        this.mesh = mesh;
+        Level base = new Level(mesh, mesh.xArray(), mesh.yArray(), null);
+        if (!hierarchy) {
+            levels = new Level[] {base};
+            return;
+        }
+        try (Trace.Scope scope = Trace.begin("PointLocator.hierarchy")) {
+            levels = buildHierarchy(base);
+        }
+    }
+
+    public TriangleMesh getMesh() {
+        return mesh;
+    }
+
+    public int levelCount() {
+        return levels.length;
+    }
+
+    // Index of a triangle containing (x, y), -1 outside the convex hull. Points on an
+    // edge or vertex get one of the triangles around it.
+    public int locate(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            return -1;
+        }
+        int top = levels.length - 1;
+        int t = walk(levels[top], jumpStart(levels[top], x, y), x, y);
+        for (int k = top; k > 0; k--) {
+            Level level = levels[k];
+            int v = nearestCorner(level, outside(t) ? -2 - t : t, x, y);
+            Level below = levels[k - 1];
+            t = walk(below, below.vertexEdge[level.down[v]] / 3, x, y);
+        }
+        return outside(t) ? -1 : t;
+    }
+
+    // Same, walking from triangle hint, which should be near (x, y): the previous
+    // answer for a nearby query
+    public int locate(double x, double y, int hint) {
+        if (hint < 0 || hint >= mesh.triangleCount() || !Double.isFinite(x) || !Double.isFinite(y)) {
+            return locate(x, y);
+        }
+        int t = walk(levels[0], hint, x, y);
+        return outside(t) ? -1 : t;
+    }
+
+    // Containing triangle of every query, in query order
+    @SuppressWarnings("try")
+    public int[] locateAll(PointSet queries) {
+        int count = queries.size();
+        int[] result = new int[count];
+        if (count == 0) {
+            return result;
+        }
+        try (Trace.Scope scope = Trace.begin("PointLocator.locateAll")) {
+            int[] order = IndexSort.mortonOrder(queries);
+            int previous = -1;
+            for (int i : order) {
+                int t = locate(queries.x(i), queries.y(i), previous);
+                result[i] = t;
+                if (t >= 0) previous = t;
+            }
+        }
+        return result;
+    }
+
+    // Walks from triangle start towards (x, y). Returns the triangle containing it, or
+    // -2 - t when the walk left the mesh through a hull edge of triangle t.
+    private static int walk(Level level, int start, double x, double y) {
+        if (start < 0) {
+            return -1;
+        }
+        double[] xs = level.xs, ys = level.ys;
+        int[] triangles = level.triangles, halfedges = level.halfedges;
+        int t = start;
+        int entered = -1;  // half-edge the walk came in through, the query is on its inner side
+        int random = start * 0x9E3779B9 + 1;
+        while (true) {
+            random = random * 1103515245 + 12345;
+            int first = ((random >>> 16) * 3) >>> 16;
+            int base = t * 3;
+            int crossed = -1;
+            for (int i = 0; i < 3; i++) {
+                int e = base + (first + i) % 3;
+                if (e == entered) continue;
+                int a = triangles[e];
+                int b = triangles[TriangleMesh.nextHalfedge(e)];
+                Trace.orientationTest();
+                if (Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], x, y) < 0) {
+                    crossed = e;
+                    break;
+                }
+            }
+            if (crossed < 0) {
+                return t;
+            }
+            int twin = halfedges[crossed];
+            if (twin < 0) {
+                return -2 - t;
+            }
+            entered = twin;
+            t = twin / 3;
+        }
+    }
+
+    private static boolean outside(int walkResult) {
+        return walkResult < 0;
+    }
+
+    // Triangle of the sample vertex closest to (x, y), -1 for a mesh without triangles
+    private static int jumpStart(Level level, double x, double y) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        double[] sampleXs = level.sampleXs, sampleYs = level.sampleYs;
+        for (int i = 0; i < sampleXs.length; i++) {
+            double dx = sampleXs[i] - x;
+            double dy = sampleYs[i] - y;
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best < 0 ? -1 : level.vertexEdge[level.samples[best]] / 3;
+    }
+
+    private static int nearestCorner(Level level, int t, double x, double y) {
+        int best = level.triangles[t * 3];
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 3; i++) {
+            int v = level.triangles[t * 3 + i];
+            double dx = level.xs[v] - x;
+            double dy = level.ys[v] - y;
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    // Samples each level from the one below with a fixed seed, so the hierarchy (and
+    // the triangle returned for a point on an edge) is the same on every run
+    private static Level[] buildHierarchy(Level base) {
+        Level[] levels = {base};
+        Random random = new Random(0x5EED);
+        Level level = base;
+        while (level.samples.length > 0 && level.vertexEdge.length > TOP_SIZE) {
+            int vertexCount = 0;
+            int[] down = new int[level.vertexEdge.length / RATIO + 16];
+            for (int v = 0; v < level.vertexEdge.length; v++) {
+                if (level.vertexEdge[v] < 0 || random.nextInt(RATIO) != 0) continue;
+                if (vertexCount == down.length) down = Arrays.copyOf(down, vertexCount * 2);
+                down[vertexCount++] = v;
+            }
+            if (vertexCount < 3) {
+                break;
+            }
+            double[] xs = new double[vertexCount];
+            double[] ys = new double[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                xs[i] = level.xs[down[i]];
+                ys[i] = level.ys[down[i]];
+            }
+            GuibasStolfi engine = new GuibasStolfi(xs, ys, vertexCount);
+            engine.triangulate();
+            TriangleMesh upper = engine.toMesh();
+            if (upper.triangleCount() == 0) {
+                break;
+            }
+            level = new Level(upper, xs, ys, Arrays.copyOf(down, vertexCount));
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = level;
+        }
+        return levels;
+    }
+}
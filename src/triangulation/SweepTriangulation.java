@@ -0,0 +1,228 @@
+package triangulation;
+
+import geometry.IndexSort;
+import geometry.Predicates;
+import geometry.Trace;
+import java.util.Arrays;
+
+// Sweep-line triangulation of a point set (not Delaunay). The points are sorted by
+// (x, y) once; each new point lies right of everything seen so far and is joined to
+// the hull edges it can see. The lower and upper hull chains are kept as stacks, so
+// after the O(n log n) sort every point is pushed and popped at most once per chain.
+//
+// Each stack entry remembers the half-edge of the triangle lying on that hull edge,
+// and the fan around the new point is linked as it is built, so the result is a
+// complete TriangleMesh with adjacency, ready for flip refinement.
+final class SweepTriangulation {
+    private final double[] xs;
+    private final double[] ys;
+    private final int n;
+
+    private int[] sorted;
+    private int uniqueCount;
+
+    private int[] triangles;
+    private int[] halfedges;
+    private int triangleCount;
+
+    // Hull chains from the leftmost point to the last point added. lowerEdge[i] is the
+    // half-edge lower[i] -> lower[i + 1] of the triangle above it, upperEdge[i] the
+    // half-edge upper[i + 1] -> upper[i] of the triangle below it.
+    private int[] lower;
+    private int[] lowerEdge;
+    private int lowerSize;
+    private int[] upper;
+    private int[] upperEdge;
+    private int upperSize;
+
+    SweepTriangulation(double[] xs, double[] ys, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.n = n;
+    }
+
+    TriangleMesh triangulate() {
+        sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        IndexSort.sortLexicographic(xs, ys, sorted, 0, n);
+
+        // Coincident points keep their lowest index, the others are left out
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            int v = sorted[i];
+            if (unique > 0) {
+                int last = sorted[unique - 1];
+                if (xs[last] == xs[v] && ys[last] == ys[v]) {
+                    if (v < last) sorted[unique - 1] = v;
+                    continue;
+                }
+            }
+            sorted[unique++] = v;
+        }
+        uniqueCount = unique;
+
+        int capacity = Math.max(0, 2 * uniqueCount - 5);
+        triangles = new int[capacity * 3];
+        halfedges = new int[capacity * 3];
+        Arrays.fill(halfedges, -1);
+        lower = new int[uniqueCount];
+        lowerEdge = new int[uniqueCount];
+        upper = new int[uniqueCount];
+        upperEdge = new int[uniqueCount];
+
+        int first = firstNonCollinear();
+        if (first < uniqueCount) {
+            start(first);
+            for (int i = first + 1; i < uniqueCount; i++) {
+                add(sorted[i]);
+            }
+        }
+        return new TriangleMesh(xs, ys, n, Arrays.copyOf(triangles, triangleCount * 3),
+                Arrays.copyOf(halfedges, triangleCount * 3));
+    }
+
+    // All edges as vertex pairs. Without any triangle the points are collinear and
+    // the triangulation is the chain through the sorted points.
+    int[] edgePairs(TriangleMesh mesh) {
+        if (mesh.triangleCount() > 0 || uniqueCount < 2) {
+            return mesh.edges();
+        }
+        int[] pairs = new int[(uniqueCount - 1) * 2];
+        for (int i = 0; i + 1 < uniqueCount; i++) {
+            pairs[i * 2] = sorted[i];
+            pairs[i * 2 + 1] = sorted[i + 1];
+        }
+        return pairs;
+    }
+
+    // Position of the first sorted point off the line through the first two
+    private int firstNonCollinear() {
+        if (uniqueCount < 3) {
+            return uniqueCount;
+        }
+        int a = sorted[0], b = sorted[1];
+        for (int i = 2; i < uniqueCount; i++) {
+            if (orient(a, b, sorted[i]) != 0) return i;
+        }
+        return uniqueCount;
+    }
+
+    // Fans the collinear run sorted[0, k) to p = sorted[k]; the run becomes one hull
+    // chain and the segment from its first point to p the other
+    private void start(int k) {
+        int p = sorted[k];
+        boolean above = orient(sorted[0], sorted[1], p) > 0;
+        int previous = -1;
+        for (int i = 0; i + 1 < k; i++) {
+            int a = sorted[i], b = sorted[i + 1];
+            int t;
+            if (above) {
+                t = addTriangle(a, b, p);    // a -> b, b -> p, p -> a
+                if (previous >= 0) link(t + 2, previous + 1);
+                lower[i] = a;
+                lowerEdge[i] = t;
+            } else {
+                t = addTriangle(b, a, p);    // b -> a, a -> p, p -> b
+                if (previous >= 0) link(t + 1, previous + 2);
+                upper[i] = a;
+                upperEdge[i] = t;
+            }
+            previous = t;
+        }
+        int firstTriangle = 0;
+        int last = sorted[k - 1];
+        if (above) {
+            lower[k - 1] = last;
+            lowerEdge[k - 1] = previous + 1;
+            lower[k] = p;
+            lowerSize = k + 1;
+            upper[0] = sorted[0];
+            upperEdge[0] = firstTriangle + 2;
+            upper[1] = p;
+            upperSize = 2;
+        } else {
+            upper[k - 1] = last;
+            upperEdge[k - 1] = previous + 2;
+            upper[k] = p;
+            upperSize = k + 1;
+            lower[0] = sorted[0];
+            lowerEdge[0] = firstTriangle + 1;
+            lower[1] = p;
+            lowerSize = 2;
+        }
+    }
+
+    // Joins p to every hull edge it sees, walking both chains back from the last point
+    private void add(int p) {
+        // Lower chain: triangles (a, p, b) under edges a -> b that have p on their right
+        int across = -1;  // half-edge p -> r on the last point r, shared by both fans
+        int pending = -1; // half-edge a -> p of the last lower triangle, twin of the next one
+        while (lowerSize >= 2) {
+            int a = lower[lowerSize - 2];
+            int b = lower[lowerSize - 1];
+            if (orient(a, b, p) >= 0) break;
+            int t = addTriangle(a, p, b);    // a -> p, p -> b, b -> a
+            link(t + 2, lowerEdge[lowerSize - 2]);
+            if (pending >= 0) {
+                link(t + 1, pending);
+            } else {
+                across = t + 1;
+            }
+            pending = t;
+            lowerSize--;
+        }
+        int lowerLast = lowerSize - 1;
+
+        // Upper chain: triangles (a, b, p) over edges a -> b that have p on their left
+        int acrossUpper = -1;  // half-edge r -> p of the first upper triangle
+        int upperPending = -1; // half-edge p -> a of the last upper triangle
+        while (upperSize >= 2) {
+            int a = upper[upperSize - 2];
+            int b = upper[upperSize - 1];
+            if (orient(a, b, p) <= 0) break;
+            int t = addTriangle(a, b, p);    // a -> b, b -> p, p -> a
+            link(t, upperEdge[upperSize - 2]);
+            if (upperPending >= 0) {
+                link(t + 1, upperPending);
+            } else {
+                acrossUpper = t + 1;
+            }
+            upperPending = t + 2;
+            upperSize--;
+        }
+        int upperLast = upperSize - 1;
+
+        if (across >= 0 && acrossUpper >= 0) {
+            link(across, acrossUpper);
+        }
+
+        // New hull edges into p. If one chain saw nothing, its edge r -> p is the
+        // side of the other chain's first triangle.
+        lowerEdge[lowerLast] = pending >= 0 ? pending : acrossUpper;
+        lower[lowerSize++] = p;
+        upperEdge[upperLast] = upperPending >= 0 ? upperPending : across;
+        upper[upperSize++] = p;
+    }
+
+    private int addTriangle(int a, int b, int c) {
+        int t = triangleCount * 3;
+        triangles[t] = a;
+        triangles[t + 1] = b;
+        triangles[t + 2] = c;
+        triangleCount++;
+        Trace.edgeInserted();
+        return t;
+    }
+
+    private void link(int e, int f) {
+        halfedges[e] = f;
+        halfedges[f] = e;
+    }
+
+    private double orient(int a, int b, int c) {
+        Trace.orientationTest();
+        return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+    }
+}
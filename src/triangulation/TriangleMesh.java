@@ -0,0 +1,102 @@
+package triangulation;
+
+// Triangle mesh stored as flat index arrays. Half-edge e belongs to triangle e / 3,
+// starts at vertex triangles[e] and its twin in the neighbouring triangle is
+// halfedges[e] (-1 when e lies on the convex hull).
+public class TriangleMesh {
+    private final double[] xs;
+    private final double[] ys;
+    private final int vertexCount;
+    private final int[] triangles;
+    private final int[] halfedges;
+    private int[] edges;
+
+    public TriangleMesh(double[] xs, double[] ys, int vertexCount, int[] triangles, int[] halfedges) {
+        if (triangles.length != halfedges.length || triangles.length % 3 != 0) {
+            throw new IllegalArgumentException("Triangles and halfedges must have matching length divisible by 3.");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.vertexCount = vertexCount;
+        this.triangles = triangles;
+        this.halfedges = halfedges;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public int triangleCount() {
+        return triangles.length / 3;
+    }
+
+    public double x(int vertex) {
+        return xs[vertex];
+    }
+
+    public double y(int vertex) {
+        return ys[vertex];
+    }
+
+    // Shared coordinate arrays for walks inside the package; may be longer than vertexCount
+    double[] xArray() {
+        return xs;
+    }
+
+    double[] yArray() {
+        return ys;
+    }
+
+    // The arrays below are shared, not copied; callers must treat them as read-only.
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    public int[] getHalfedges() {
+        return halfedges;
+    }
+
+    public int origin(int halfedge) {
+        return triangles[halfedge];
+    }
+
+    public int destination(int halfedge) {
+        return triangles[nextHalfedge(halfedge)];
+    }
+
+    public int twin(int halfedge) {
+        return halfedges[halfedge];
+    }
+
+    public static int triangleOf(int halfedge) {
+        return halfedge / 3;
+    }
+
+    public static int nextHalfedge(int halfedge) {
+        return (halfedge % 3 == 2) ? halfedge - 2 : halfedge + 1;
+    }
+
+    public static int prevHalfedge(int halfedge) {
+        return (halfedge % 3 == 0) ? halfedge + 2 : halfedge - 1;
+    }
+
+    // Every undirected edge once, as consecutive (start, end) vertex pairs.
+    public int[] edges() {
+        if (edges == null) {
+            int count = 0;
+            for (int e = 0; e < halfedges.length; e++) {
+                if (halfedges[e] < e) count++;
+            }
+            int[] result = new int[count * 2];
+            int k = 0;
+            for (int e = 0; e < halfedges.length; e++) {
+                if (halfedges[e] < e) {
+                    result[k++] = triangles[e];
+                    result[k++] = triangles[nextHalfedge(e)];
+                }
+            }
+            edges = result;
+        }
+        return edges;
+    }
+}
@@ -1,100 +1,253 @@
 package voronoi;
 
-import java.awt.*;
+import geometry.BoundingBox;
+import geometry.Trace;
 import java.util.*;
-import java.util.List;
 import triangulation.DelaunayTriangulation;
+import triangulation.TriangleMesh;
 
+// Voronoi diagram as the dual of a Delaunay triangulation. Every triangle's
+// circumcenter is a Voronoi vertex, every interior Delaunay edge becomes the segment
+// between the circumcenters of its two triangles and every hull edge becomes a ray
+// leaving its triangle's circumcenter outwards. One pass over the half-edges, O(n).
+//
+// With a clip box, segments and rays are cut to the box and edges outside it are
+// dropped, so every stored edge is a finite segment.
 public class VoronoiDiagram {
-    private DelaunayTriangulation delaunay;
-    private Set<Point> voronoiPoints;
-    private List<LineSegment> voronoiEdges;
+    private final TriangleMesh mesh;
+    private final BoundingBox clip;  // null for the unbounded diagram
+
+    private double[] circumX;
+    private double[] circumY;
+
+    // Edge i runs from (coords[4i], coords[4i+1]) to (coords[4i+2], coords[4i+3]) and
+    // separates sites[2i] and sites[2i+1]. For a ray the second point is one unit
+    // along its direction and the edge continues past it.
+    private double[] coords;
+    private int[] sites;
+    private boolean[] rays;
+    private int edgeCount;
+    private List<LineSegment> voronoiEdges;  // built on first getEdges()
+    private double clipStart, clipEnd;       // result of the last clip() call
 
     public VoronoiDiagram(DelaunayTriangulation delaunay) {
-        this.delaunay = delaunay;
-        this.voronoiPoints = new HashSet<>();
-        this.voronoiEdges = new ArrayList<>();
-        computeVoronoi();
-    }
-
-    private void computeVoronoi() {
-        Set<DelaunayTriangulation.Edge> delaunayEdges = delaunay.getEdges();
-        
-        // Iterate through each Delaunay edge
-        for (DelaunayTriangulation.Edge edge : delaunayEdges) {
-            Point p1 = edge.p1;
-            Point p2 = edge.p2;
-            
-            // Find the third point that forms the triangle with the edge
-            Point thirdPoint = findThirdPointForEdge(p1, p2);
-            
-            if (thirdPoint != null) {
-                // Calculate the circumcenter using the edge and the third point
-                Point circumcenter = findCircumcenter(p1, p2, thirdPoint);
-                
-                if (circumcenter != null) {
-                    voronoiPoints.add(circumcenter);
-                    LineSegment edgeSegment = new LineSegment(edge.p1, circumcenter);
-                    voronoiEdges.add(edgeSegment);
-                }
-            }
+        this(delaunay, null);
+    }
+
+    @SuppressWarnings("try")
+    public VoronoiDiagram(DelaunayTriangulation delaunay, BoundingBox clip) {
+        this.mesh = delaunay.getMesh();
+        if (mesh == null) {
+            throw new IllegalStateException("Delaunay triangulation has not been performed.");
+        }
+        this.clip = clip;
+        try (Trace.Scope scope = Trace.begin("VoronoiDiagram.computeVoronoi")) {
+            computeVoronoi(delaunay.getEdgeIndices());
         }
     }
 
-    // Find the third point for the triangle formed by the edge p1-p2
-    private Point findThirdPointForEdge(Point p1, Point p2) {
-        for (DelaunayTriangulation.Edge otherEdge : delaunay.getEdges()) {
-            if ((otherEdge.p1.equals(p1) || otherEdge.p2.equals(p1)) &&
-                (otherEdge.p1.equals(p2) || otherEdge.p2.equals(p2))) {
-                // Find the third point that is common in the other edge
-                if (!otherEdge.p1.equals(p1) && !otherEdge.p1.equals(p2)) {
-                    return otherEdge.p1;
-                }
-                if (!otherEdge.p2.equals(p1) && !otherEdge.p2.equals(p2)) {
-                    return otherEdge.p2;
-                }
+    private void computeVoronoi(int[] delaunayEdges) {
+        int[] triangles = mesh.getTriangles();
+        int[] halfedges = mesh.getHalfedges();
+        int triangleCount = mesh.triangleCount();
+
+        circumX = new double[triangleCount];
+        circumY = new double[triangleCount];
+        for (int t = 0; t < triangleCount; t++) {
+            findCircumcenter(t, triangles[3 * t], triangles[3 * t + 1], triangles[3 * t + 2]);
+        }
+
+        if (triangleCount == 0) {
+            // Collinear sites: each pair of neighbours is split by a full line
+            int pairs = delaunayEdges.length / 2;
+            allocate(2 * pairs);
+            for (int i = 0; i < delaunayEdges.length; i += 2) {
+                int a = delaunayEdges[i], b = delaunayEdges[i + 1];
+                double mx = (mesh.x(a) + mesh.x(b)) / 2, my = (mesh.y(a) + mesh.y(b)) / 2;
+                double dx = mesh.y(b) - mesh.y(a), dy = mesh.x(a) - mesh.x(b);
+                addRay(mx, my, dx, dy, a, b);
+                addRay(mx, my, -dx, -dy, a, b);
             }
+            return;
+        }
+
+        int count = 0;
+        for (int e = 0; e < halfedges.length; e++) {
+            if (halfedges[e] < e) count++;
         }
-        return null;  // Return null if no third point is found
+        allocate(count);
+
+        for (int e = 0; e < halfedges.length; e++) {
+            int twin = halfedges[e];
+            if (twin >= 0 && twin < e) continue;
+            int t = TriangleMesh.triangleOf(e);
+            int a = triangles[e];
+            int b = triangles[TriangleMesh.nextHalfedge(e)];
+            if (twin < 0) {
+                // Triangles are CCW, so the outside of hull edge a-b is to its right
+                addRay(circumX[t], circumY[t], mesh.y(b) - mesh.y(a), mesh.x(a) - mesh.x(b), a, b);
+            } else {
+                int u = TriangleMesh.triangleOf(twin);
+                addSegment(circumX[t], circumY[t], circumX[u], circumY[u], a, b);
+            }
+        }
+    }
+
+    // Circumcenter relative to a, which keeps precision for sites far from the origin
+    private void findCircumcenter(int t, int a, int b, int c) {
+        double ax = mesh.x(a), ay = mesh.y(a);
+        double bx = mesh.x(b) - ax, by = mesh.y(b) - ay;
+        double cx = mesh.x(c) - ax, cy = mesh.y(c) - ay;
+        double d = 2 * (bx * cy - by * cx);
+        double bl = bx * bx + by * by;
+        double cl = cx * cx + cy * cy;
+        circumX[t] = ax + (cy * bl - by * cl) / d;
+        circumY[t] = ay + (bx * cl - cx * bl) / d;
     }
 
-    // Calculate the circumcenter for three points
-    private Point findCircumcenter(Point a, Point b, Point c) {
-        double d = 2 * (a.x * (b.y - c.y) + b.x * (c.y - a.y) + c.x * (a.y - b.y));
-        if (d == 0) return null;
+    private void allocate(int capacity) {
+        coords = new double[capacity * 4];
+        sites = new int[capacity * 2];
+        rays = new boolean[capacity];
+        edgeCount = 0;
+    }
+
+    private void addSegment(double x1, double y1, double x2, double y2, int siteA, int siteB) {
+        if (clip != null) {
+            double dx = x2 - x1, dy = y2 - y1;
+            if (!clip(x1, y1, dx, dy, 1)) return;
+            store(x1 + clipStart * dx, y1 + clipStart * dy,
+                  x1 + clipEnd * dx, y1 + clipEnd * dy, false, siteA, siteB);
+        } else {
+            store(x1, y1, x2, y2, false, siteA, siteB);
+        }
+    }
 
-        double ux = ((a.x * a.x + a.y * a.y) * (b.y - c.y)
-                     + (b.x * b.x + b.y * b.y) * (c.y - a.y)
-                     + (c.x * c.x + c.y * c.y) * (a.y - b.y)) / d;
+    private void addRay(double x, double y, double dx, double dy, int siteA, int siteB) {
+        double length = Math.hypot(dx, dy);
+        dx /= length;
+        dy /= length;
+        if (clip != null) {
+            if (!clip(x, y, dx, dy, Double.POSITIVE_INFINITY)) return;
+            store(x + clipStart * dx, y + clipStart * dy,
+                  x + clipEnd * dx, y + clipEnd * dy, false, siteA, siteB);
+        } else {
+            store(x, y, x + dx, y + dy, true, siteA, siteB);
+        }
+    }
 
-        double uy = ((a.x * a.x + a.y * a.y) * (c.x - b.x)
-                     + (b.x * b.x + b.y * b.y) * (a.x - c.x)
-                     + (c.x * c.x + c.y * c.y) * (b.x - a.x)) / d;
+    // Liang-Barsky: finds the parameter interval [clipStart, clipEnd] of
+    // (x, y) + t (dx, dy), 0 <= t <= tMax, inside the clip box. False if it misses the box.
+    private boolean clip(double x, double y, double dx, double dy, double tMax) {
+        clipStart = 0;
+        clipEnd = tMax;
+        return clipBoundary(-dx, x - clip.getMinX())
+            && clipBoundary(dx, clip.getMaxX() - x)
+            && clipBoundary(-dy, y - clip.getMinY())
+            && clipBoundary(dy, clip.getMaxY() - y)
+            && clipStart <= clipEnd;
+    }
 
-        return new Point((int) Math.round(ux), (int) Math.round(uy));
+    private boolean clipBoundary(double p, double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            if (r > clipEnd) return false;
+            if (r > clipStart) clipStart = r;
+        } else {
+            if (r < clipStart) return false;
+            if (r < clipEnd) clipEnd = r;
+        }
+        return true;
     }
 
-    // Visualize the Voronoi diagram
-    public void visualize(Graphics g) {
-        for (LineSegment segment : voronoiEdges) {
-            g.setColor(Color.RED);
-            g.drawLine(segment.p1.x, segment.p1.y, segment.p2.x, segment.p2.y);
+    private void store(double x1, double y1, double x2, double y2, boolean ray, int siteA, int siteB) {
+        if (edgeCount * 4 == coords.length) {
+            int capacity = Math.max(4, edgeCount * 2);
+            coords = Arrays.copyOf(coords, capacity * 4);
+            sites = Arrays.copyOf(sites, capacity * 2);
+            rays = Arrays.copyOf(rays, capacity);
         }
+        int i = edgeCount++;
+        coords[4 * i] = x1;
+        coords[4 * i + 1] = y1;
+        coords[4 * i + 2] = x2;
+        coords[4 * i + 3] = y2;
+        sites[2 * i] = siteA;
+        sites[2 * i + 1] = siteB;
+        rays[i] = ray;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public double x1(int edge) {
+        return coords[4 * edge];
+    }
+
+    public double y1(int edge) {
+        return coords[4 * edge + 1];
+    }
+
+    public double x2(int edge) {
+        return coords[4 * edge + 2];
+    }
+
+    public double y2(int edge) {
+        return coords[4 * edge + 3];
+    }
+
+    public boolean isRay(int edge) {
+        return rays[edge];
+    }
 
-        for (Point point : voronoiPoints) {
-            g.setColor(Color.BLUE);
-            g.fillOval(point.x - 3, point.y - 3, 6, 6);
+    // The two sites (input point indices) whose cells meet along the edge
+    public int siteA(int edge) {
+        return sites[2 * edge];
+    }
+
+    public int siteB(int edge) {
+        return sites[2 * edge + 1];
+    }
+
+    // Voronoi vertex of Delaunay triangle t
+    public double circumcenterX(int triangle) {
+        return circumX[triangle];
+    }
+
+    public double circumcenterY(int triangle) {
+        return circumY[triangle];
+    }
+
+    public TriangleMesh getMesh() {
+        return mesh;
+    }
+
+    public List<LineSegment> getEdges() {
+        if (voronoiEdges == null) {
+            List<LineSegment> edges = new ArrayList<>(edgeCount);
+            for (int i = 0; i < edgeCount; i++) {
+                edges.add(new LineSegment(x1(i), y1(i), x2(i), y2(i), rays[i]));
+            }
+            voronoiEdges = Collections.unmodifiableList(edges);
         }
+        return voronoiEdges;
     }
 
-    // Line segment class to connect two points
+    // Line segment between two Voronoi vertices, or a ray from (x1, y1) through (x2, y2)
     public static class LineSegment {
-        public Point p1, p2;
+        public final double x1, y1, x2, y2;
+        public final boolean ray;
 
-        public LineSegment(Point p1, Point p2) {
-            this.p1 = p1;
-            this.p2 = p2;
+        public LineSegment(double x1, double y1, double x2, double y2, boolean ray) {
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.ray = ray;
         }
     }
 }
-